@@ -0,0 +1,65 @@
+package me.parted.anivia.fsm;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks matching hostmasks against a union of globs with a {@link me.parted.anivia.fsm.LazyDfa} built straight
+ * from the NFA of the union, against the minimal {@link me.parted.anivia.fsm.Dfa} of the same union, and against a
+ * lazy DFA whose cache is too small for the traffic.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LazyDfaBenchmark {
+
+    private static final String[] HOSTMASKS = {
+            "somenick!someuser@some.client.fqdn",
+            "othernick!~other@host-12-34-56-78.example.net",
+            "thirdnick!third@2001:db8:85a3::8a2e:370:7334",
+            "fourthnick!fourth@gateway/web/irccloud.com/x-abcdefgh",
+            "nick5!user@somewhere.example.org",
+    };
+
+    @Param({"16", "64"})
+    public int globs;
+
+    private Dfa dfa;
+    private LazyDfa lazy;
+    private LazyDfa thrashing;
+    private int index;
+
+    @Setup
+    public void setup() {
+        List<String> list = MinimizeBenchmark.globs(globs);
+        dfa = MinimizeBenchmark.pairwise(list);
+        lazy = MinimizeBenchmark.union(list).buildLazy(4096);
+        thrashing = MinimizeBenchmark.union(list).buildLazy(16);
+    }
+
+    private String next() {
+        index = (index + 1) % HOSTMASKS.length;
+        return HOSTMASKS[index];
+    }
+
+    @Benchmark
+    public boolean eager() {
+        return dfa.matches(next());
+    }
+
+    @Benchmark
+    public boolean lazy() {
+        return lazy.matches(next());
+    }
+
+    @Benchmark
+    public boolean lazyThrashing() {
+        return thrashing.matches(next());
+    }
+
+}
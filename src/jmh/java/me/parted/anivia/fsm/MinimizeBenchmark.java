@@ -0,0 +1,142 @@
+package me.parted.anivia.fsm;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks compiling a union of ban-list style hostmask globs into a minimal {@link me.parted.anivia.fsm.Dfa}, by
+ * Brzozowski's algorithm against subset construction followed by Hopcroft's algorithm, and against merging the DFAs of
+ * the globs pairwise as {@link me.parted.anivia.model.GlobSet} does.
+ * <p>
+ * Both of the first two determinize the NFA of the whole union, which takes exponential time for hostmask globs with
+ * several wildcards: past 16 of them neither finishes in minutes, which is why GlobSet merges pairwise. The
+ * {@code fixedLength} globs start with a run of '?', so their DFA is small but the DFA of their reversal has to
+ * remember the last characters read. That is where Hopcroft's algorithm wins, by a margin that grows with the number of
+ * globs; those scale to {@code -p globs=64} and beyond.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MinimizeBenchmark {
+
+    @Param({"4", "8", "16"})
+    public int globs;
+
+    @Param({"hostmask", "fixedLength"})
+    public String shape;
+
+    private List<String> list;
+
+    @Setup
+    public void setup() {
+        list = shape.equals("hostmask") ? globs(globs) : fixedLengthGlobs(globs);
+    }
+
+    /*
+     * Returns a number of ban-list style hostmask globs.
+     */
+    static List<String> globs(int count) {
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+                case 0:
+                    list.add("*!*@host-" + i + ".example.net");
+                    break;
+                case 1:
+                    list.add("nick" + i + "*!*@*");
+                    break;
+                case 2:
+                    list.add("*!user" + i + "@*.example.org");
+                    break;
+                default:
+                    list.add("*!*@2001:db8:" + Integer.toHexString(i) + "::?");
+            }
+        }
+        return list;
+    }
+
+    /*
+     * Returns a number of globs that each match a nickname of exactly eight characters.
+     */
+    static List<String> fixedLengthGlobs(int count) {
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add("????????!user" + i + "@*");
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Dfa brzozowski() {
+        return union().buildByReversal();
+    }
+
+    @Benchmark
+    public Dfa hopcroft() {
+        return union().build();
+    }
+
+    @Benchmark
+    public Dfa pairwise() {
+        return pairwise(list);
+    }
+
+    /*
+     * Compiles globs into a minimal DFA by merging their DFAs pairwise, as GlobSet does.
+     */
+    static Dfa pairwise(List<String> list) {
+        List<Dfa> dfas = new ArrayList<>(list.size());
+        for (String glob : list) {
+            dfas.add(globToFsm(glob).build());
+        }
+        while (dfas.size() > 1) {
+            List<Dfa> merged = new ArrayList<>((dfas.size() + 1) / 2);
+            for (int i = 0; i + 1 < dfas.size(); i += 2) {
+                merged.add(dfas.get(i).union(dfas.get(i + 1)).minimize());
+            }
+            if (dfas.size() % 2 == 1) {
+                merged.add(dfas.get(dfas.size() - 1));
+            }
+            dfas = merged;
+        }
+        return dfas.get(0);
+    }
+
+    private FsmBuilder union() {
+        return union(list);
+    }
+
+    /*
+     * Returns the NFA for the union of globs.
+     */
+    static FsmBuilder union(List<String> list) {
+        FsmBuilder union = globToFsm(list.get(0));
+        for (int i = 1; i < list.size(); i++) {
+            union = union.or(globToFsm(list.get(i)));
+        }
+        return union;
+    }
+
+    static FsmBuilder globToFsm(String glob) {
+        FsmBuilder builder = new FsmBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                builder = builder.followedBy(new FsmBuilder()
+                        .followedBy(Character.MIN_VALUE, Character.MAX_VALUE).star());
+            } else if (c == '?') {
+                builder = builder.followedBy(Character.MIN_VALUE, Character.MAX_VALUE);
+            } else {
+                builder = builder.followedBy(new char[]{c});
+            }
+        }
+        return builder;
+    }
+
+}
@@ -0,0 +1,103 @@
+package me.parted.anivia.irc;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link me.parted.anivia.irc.IrcMessageReader} over a few mixes of realistic client and server traffic.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IrcMessageReaderBenchmark {
+
+    static final String[] TAGGED = {
+            "@time=2016-01-01T12:00:00.000Z;account=someaccount;msgid=63E1033A051D4B41B1AB1FA3CF4B243E "
+                    + ":SomeNick!someuser@some.client.fqdn PRIVMSG #channel :Hello there",
+            "@batch=yXNAbvnRHTRBv;time=2016-01-01T12:00:01.000Z :OtherNick!~other@uid12345.irccloud.com "
+                    + "PRIVMSG #channel :Some reply to the last message",
+            "@label=123;msgid=ABCDEF0123456789 :irc.example.com 354 SomeNick 152 #channel someuser some.client.fqdn "
+                    + "SomeNick H@ :Real Name",
+    };
+
+    static final String[] PLAIN = {
+            ":SomeNick!someuser@some.client.fqdn PRIVMSG #channel :Hello there, how is everyone doing today?",
+            ":OtherNick!other@host-12-34-56-78.example.net PRIVMSG SomeNick :hi",
+            ":SomeNick!someuser@some.client.fqdn NOTICE #channel :This is a notice",
+            "PING :irc.example.com",
+    };
+
+    static final String[] NUMERIC = {
+            ":irc.example.com 001 SomeNick :Welcome to the Example Internet Relay Chat Network SomeNick",
+            ":irc.example.com 353 SomeNick = #channel :SomeNick @OtherNick +ThirdNick FourthNick FifthNick",
+            ":irc.example.com 366 SomeNick #channel :End of /NAMES list.",
+            ":irc.example.com 005 SomeNick CHANTYPES=# EXCEPTS INVEX CHANMODES=eIbq,k,flj,CFLMPQScgimnprstz "
+                    + "CHANLIMIT=#:120 PREFIX=(ov)@+ MAXLIST=bqeI:100 :are supported by this server",
+    };
+
+    static final String[] IPV6 = {
+            ":SomeNick!someuser@2001:db8:85a3::8a2e:370:7334 PRIVMSG #channel :Hello over IPv6",
+            ":OtherNick!~other@2001:0db8:0000:0042:0000:8a2e:0370:7334 JOIN #channel",
+            ":ThirdNick!third@::1 QUIT :Client Quit",
+    };
+
+    @Param({"tagged", "plain", "numeric", "ipv6", "mixed"})
+    public String traffic;
+
+    private String[] lines;
+    private ByteBuffer[] buffers;
+    private int index;
+
+    @Setup
+    public void setup() {
+        String[] source;
+        switch (traffic) {
+            case "tagged":
+                source = TAGGED;
+                break;
+            case "plain":
+                source = PLAIN;
+                break;
+            case "numeric":
+                source = NUMERIC;
+                break;
+            case "ipv6":
+                source = IPV6;
+                break;
+            default:
+                source = new String[TAGGED.length + PLAIN.length + NUMERIC.length + IPV6.length];
+                System.arraycopy(TAGGED, 0, source, 0, TAGGED.length);
+                System.arraycopy(PLAIN, 0, source, TAGGED.length, PLAIN.length);
+                System.arraycopy(NUMERIC, 0, source, TAGGED.length + PLAIN.length, NUMERIC.length);
+                System.arraycopy(IPV6, 0, source, TAGGED.length + PLAIN.length + NUMERIC.length, IPV6.length);
+        }
+        lines = new String[source.length];
+        buffers = new ByteBuffer[source.length];
+        for (int i = 0; i < source.length; i++) {
+            lines[i] = source[i] + "\r\n";
+            byte[] bytes = lines[i].getBytes(StandardCharsets.UTF_8);
+            buffers[i] = ByteBuffer.allocateDirect(bytes.length);
+            buffers[i].put(bytes).flip();
+        }
+    }
+
+    @Benchmark
+    public IrcMessage readString() {
+        index = (index + 1) % lines.length;
+        return IrcMessageReader.read(lines[index]);
+    }
+
+    @Benchmark
+    public IrcMessage readByteBuffer() {
+        index = (index + 1) % buffers.length;
+        return IrcMessageReader.read(buffers[index], 0, buffers[index].limit());
+    }
+
+}
@@ -0,0 +1,64 @@
+package me.parted.anivia.irc;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link me.parted.anivia.irc.IrcMessageWriter} and {@link me.parted.anivia.irc.IrcMessageEncoder} over the
+ * same traffic as {@link me.parted.anivia.irc.IrcMessageReaderBenchmark}.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IrcMessageWriterBenchmark {
+
+    @Param({"tagged", "plain", "numeric", "ipv6"})
+    public String traffic;
+
+    private IrcMessage[] messages;
+    private ByteBuffer out;
+    private int index;
+
+    @Setup
+    public void setup() {
+        String[] source;
+        switch (traffic) {
+            case "tagged":
+                source = IrcMessageReaderBenchmark.TAGGED;
+                break;
+            case "plain":
+                source = IrcMessageReaderBenchmark.PLAIN;
+                break;
+            case "numeric":
+                source = IrcMessageReaderBenchmark.NUMERIC;
+                break;
+            default:
+                source = IrcMessageReaderBenchmark.IPV6;
+        }
+        messages = new IrcMessage[source.length];
+        for (int i = 0; i < source.length; i++) {
+            messages[i] = IrcMessageReader.read(source[i] + "\r\n");
+        }
+        out = ByteBuffer.allocateDirect(1024);
+    }
+
+    @Benchmark
+    public String write() {
+        index = (index + 1) % messages.length;
+        return IrcMessageWriter.write(messages[index]);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        index = (index + 1) % messages.length;
+        out.clear();
+        IrcMessageEncoder.encode(messages[index], out);
+        return out;
+    }
+
+}
@@ -0,0 +1,186 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load-tests {@link me.parted.anivia.model.ChatServer} in each of its modes.
+ * <p>
+ * As a benchmark it measures the distribution of the round-trip time of a PING through the server, of which JMH
+ * reports the percentiles, while a number of idle clients hold connections open. Run as a program it instead opens
+ * connections to a server in each mode until it reaches a target or the server or the client runs out of resources,
+ * and reports how many it held, how long they took to open and how much heap each one cost:
+ * <pre>
+ *     java -cp ... me.parted.anivia.model.ChatServerBenchmark [connections]
+ * </pre>
+ * Either way the clients run in the same process as the server, so a large number of connections needs twice as many
+ * file descriptors.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatServerBenchmark {
+
+    private static final byte[] PING = "PING :benchmark\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"EVENT_LOOP", "VIRTUAL_THREADS"})
+    public ChatServer.Mode mode;
+
+    @Param({"0", "1000"})
+    public int idle;
+
+    private ChatServer server;
+    private InetSocketAddress address;
+    private List<SocketChannel> idleClients;
+
+    /**
+     * Answers every PING with a PONG.
+     */
+    static ChatServer.Handler pong() {
+        return (connection, message) -> {
+            if (message.getCommand().equals("PING")) {
+                connection.send(new IrcMessage(Collections.emptyList(), null, "PONG", message.getParams()));
+            }
+        };
+    }
+
+    static SocketChannel connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return channel;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        server = new ChatServer(pong(), mode);
+        address = server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        idleClients = new ArrayList<>(idle);
+        for (int i = 0; i < idle; i++) {
+            idleClients.add(connect(address));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (SocketChannel channel : idleClients) {
+            channel.close();
+        }
+        server.close();
+    }
+
+    /**
+     * A client that sends PINGs, one per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private final ByteBuffer out = ByteBuffer.wrap(PING);
+        private final ByteBuffer in = ByteBuffer.allocate(512);
+        private SocketChannel channel;
+
+        @Setup
+        public void setup(ChatServerBenchmark benchmark) throws IOException {
+            channel = connect(benchmark.address);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+        }
+
+        /**
+         * Sends a PING and waits for the whole PONG.
+         */
+        int roundTrip() throws IOException {
+            out.clear();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            in.clear();
+            while (in.position() == 0 || in.get(in.position() - 1) != '\n') {
+                if (channel.read(in) < 0) {
+                    throw new IOException("The server closed the connection.");
+                }
+            }
+            return in.position();
+        }
+    }
+
+    @Benchmark
+    public int roundTrip(Client client) throws IOException {
+        return client.roundTrip();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int target = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        for (ChatServer.Mode mode : ChatServer.Mode.values()) {
+            capacity(mode, target);
+        }
+    }
+
+    /**
+     * Opens connections to a server until there are as many as the target or one fails, then checks that the server
+     * still answers and reports what the connections cost.
+     */
+    private static void capacity(ChatServer.Mode mode, int target) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        List<SocketChannel> clients = new ArrayList<>(target);
+        String failure = "none";
+        long start = System.nanoTime();
+        try (ChatServer server = new ChatServer(pong(), mode)) {
+            InetSocketAddress address = server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try {
+                while (clients.size() < target) {
+                    clients.add(connect(address));
+                }
+            } catch (IOException | Error e) {
+                failure = e.toString();
+            }
+            long elapsed = System.nanoTime() - start;
+            while (server.getConnectionCount() < clients.size() && System.nanoTime() - start < 60_000_000_000L) {
+                Thread.sleep(10);
+            }
+
+            // Sample the latency of a PING on connections spread across all of them
+            Client client = new Client();
+            long[] samples = new long[Math.min(clients.size(), 1000)];
+            for (int i = 0; i < samples.length; i++) {
+                client.channel = clients.get((int) ((long) i * clients.size() / samples.length));
+                long t = System.nanoTime();
+                client.roundTrip();
+                samples[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(samples);
+
+            System.gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("%s: %d connections (server saw %d) in %.1f s, %d bytes of heap each, "
+                            + "PING p50 %.1f us, p99 %.1f us; failure: %s%n",
+                    mode, clients.size(), server.getConnectionCount(), elapsed / 1e9,
+                    clients.isEmpty() ? 0 : (heapAfter - heapBefore) / clients.size(),
+                    samples.length == 0 ? 0 : samples[samples.length / 2] / 1e3,
+                    samples.length == 0 ? 0 : samples[samples.length * 99 / 100] / 1e3, failure);
+        } finally {
+            for (SocketChannel channel : clients) {
+                channel.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.exception.AlreadyExistsException;
+import me.parted.anivia.exception.InvalidGlobException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link me.parted.anivia.model.GlobSet#match(String)} against ban-list style hostmask globs, and the cost
+ * of removing a glob and adding it back.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GlobSetBenchmark {
+
+    private static final String[] HOSTMASKS = {
+            "somenick!someuser@some.client.fqdn",
+            "othernick!~other@host-12-34-56-78.example.net",
+            "thirdnick!third@2001:db8:85a3::8a2e:370:7334",
+            "fourthnick!fourth@gateway/web/irccloud.com/x-abcdefgh",
+    };
+
+    @Param({"10", "1000", "100000"})
+    public int globs;
+
+    private GlobSet globSet;
+    private List<String> list;
+    private String hit;
+    private int index;
+
+    @Setup
+    public void setup() throws AlreadyExistsException, InvalidGlobException {
+        list = new ArrayList<>(globs);
+        for (int i = 0; i < globs; i++) {
+            switch (i % 4) {
+                case 0:
+                    list.add("*!*@host-" + i + ".example.net");
+                    break;
+                case 1:
+                    list.add("nick" + i + "*!*@*");
+                    break;
+                case 2:
+                    list.add("*!user" + i + "@*.example.org");
+                    break;
+                default:
+                    list.add("*!*@2001:db8:" + Integer.toHexString(i) + "::?");
+            }
+        }
+        globSet = new GlobSet();
+        globSet.addAll(list);
+        hit = "nick1!someone@anywhere";
+    }
+
+    @Benchmark
+    public boolean matchMiss() {
+        index = (index + 1) % HOSTMASKS.length;
+        return globSet.match(HOSTMASKS[index]);
+    }
+
+    @Benchmark
+    public boolean matchHit() {
+        return globSet.match(hit);
+    }
+
+    @Benchmark
+    public void removeAndAddGlob() throws AlreadyExistsException, InvalidGlobException {
+        index = (index + 1) % list.size();
+        globSet.removeGlob(list.get(index));
+        globSet.addGlob(list.get(index));
+    }
+
+}
@@ -0,0 +1,49 @@
+package me.parted.anivia.fsm;
+
+/*
+ * An inclusive range of characters labelling a transition, so that a wide class of characters such as "anything but a
+ * space" is a single edge rather than one edge per character.
+ */
+public final class CharRange {
+
+    public static final CharRange ANY = new CharRange(Character.MIN_VALUE, Character.MAX_VALUE);
+
+    public final char first;
+    public final char last;
+
+    public CharRange(char first, char last) {
+        if (first > last) {
+            throw new IllegalArgumentException("The range ends before it starts.");
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    public static CharRange of(char c) {
+        return new CharRange(c, c);
+    }
+
+    public boolean contains(char c) {
+        return first <= c && c <= last;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CharRange)) {
+            return false;
+        }
+        CharRange other = (CharRange) obj;
+        return first == other.first && last == other.last;
+    }
+
+    @Override
+    public int hashCode() {
+        return first << 16 | last;
+    }
+
+    @Override
+    public String toString() {
+        return first == last ? String.valueOf(first) : first + "-" + last;
+    }
+
+}
@@ -1,99 +1,722 @@
 package me.parted.anivia.fsm;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.*;
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
-public class Dfa extends Nfa {
+/*
+ * A DFA compiled into flat tables. States are numbered, with state 0 being the dead state from which nothing is
+ * accepted, and characters are mapped to classes of characters that behave alike in every state, so that a step is a
+ * lookup of the class followed by table[state * classCount + class]. The classes are kept as a sorted list of intervals
+ * of characters, so they cost memory per interval rather than per character, with a dense lookup table in front for the
+ * characters below LOW so that the common case is two array loads.
+ *
+ * Every accept state is tagged with the sorted IDs of the patterns it accepts, taken from the pattern of each NFA accept
+ * state, so that one run reports every pattern that matched.
+ *
+ * A DFA is immutable once built, so a single instance can be shared by any number of threads. Input is run either all at
+ * once through matches() and run(), or one character at a time through next() or a Cursor, which holds the only state.
+ */
+public class Dfa {
 
-    private State currentState = startState;
-    private final Map<Entry<State, Character>, State> transitions = new HashMap<>();
+    /*
+     * The dead state, which every missing transition leads to and which is never left.
+     */
+    public static final int DEAD = 0;
+
+    /*
+     * The pattern reported for a state that accepts nothing.
+     */
+    public static final int NONE = -1;
+
+    static final int[] NO_PATTERNS = new int[0];
+
+    private final int startState;
+    private final int[] table;
+    private final int[][] patterns;         // the sorted pattern IDs that each state accepts
+    private final int classCount;
+    private final char[] bounds;            // the first character of each interval, starting from the NUL character
+    private final int[] intervalClasses;    // the class of each interval
+    private final int[] lowClasses;         // the class of each character below LOW
+
+    private static final int LOW = 256;
 
     /*
      * constructs a DFA. from the NFA.
      */
     public Dfa(Nfa nfa) {
-        super();
-        determinize(nfa);
+        this(determinize(nfa));
+    }
+
+    private Dfa(Dfa dfa) {
+        this(dfa.startState, dfa.table, dfa.patterns, dfa.classCount, dfa.bounds, dfa.intervalClasses);
     }
 
-    public void consume(char c) {
-        if (currentState == null) {
-            return;
+    /*
+     * constructs a DFA from its tables, joining neighbouring intervals that fall into the same class.
+     */
+    private Dfa(int startState, int[] table, int[][] patterns, int classCount, char[] bounds,
+                int[] intervalClasses) {
+        int m = 0;
+        char[] joinedBounds = new char[bounds.length];
+        int[] joinedClasses = new int[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            if (m == 0 || intervalClasses[i] != joinedClasses[m - 1]) {
+                joinedBounds[m] = bounds[i];
+                joinedClasses[m] = intervalClasses[i];
+                m++;
+            }
+        }
+
+        this.startState = startState;
+        this.table = table;
+        this.patterns = patterns;
+        this.classCount = classCount;
+        this.bounds = Arrays.copyOf(joinedBounds, m);
+        this.intervalClasses = Arrays.copyOf(joinedClasses, m);
+        this.lowClasses = new int[LOW];
+        for (int i = 0; i < m && this.bounds[i] < LOW; i++) {
+            int end = i + 1 < m ? Math.min(this.bounds[i + 1], LOW) : LOW;
+            Arrays.fill(lowClasses, this.bounds[i], end, this.intervalClasses[i]);
         }
-        currentState = transitions.get(new SimpleImmutableEntry<>(currentState, c));
     }
 
-    public boolean accept() {
-        return acceptStates.contains(currentState);
+    /*
+     * Returns true if the DFA accepts the whole of an input.
+     */
+    public boolean matches(CharSequence input) {
+        return isAccepting(run(input));
     }
 
-    private void determinize(Nfa nfa) {
-        Map<NfaStateSet, State> dfaStates = new HashMap<>();
-        Queue<NfaStateSet> queue = new LinkedList<>();
+    /*
+     * Returns the state reached from the start state on an input, stopping early once the dead state is reached.
+     */
+    public int run(CharSequence input) {
+        int state = startState;
+        for (int i = 0; i < input.length() && state != DEAD; i++) {
+            state = table[state * classCount + classOf(input.charAt(i))];
+        }
+        return state;
+    }
 
-        //noinspection MismatchedQueryAndUpdateOfCollection
-        NfaStateSet startSet = new NfaStateSet(this.startState); // this is updated with followEpsilons()
-        this.startState.epsilonTransitions.add(nfa.startState);
-        startSet.followEpsilons();
-        dfaStates.put(startSet, this.startState);
-        queue.add(startSet);
+    /*
+     * Returns a new cursor at the start state, for input that arrives one character at a time.
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    public int start() {
+        return startState;
+    }
+
+    /*
+     * Returns the state reached from a state on a character, which is DEAD once no input can be accepted any more.
+     */
+    public int next(int state, char c) {
+        return table[state * classCount + classOf(c)];
+    }
+
+    public boolean isAccepting(int state) {
+        return patterns[state].length > 0;
+    }
+
+    /*
+     * Returns the lowest, and so highest priority, ID of the patterns that a state accepts, or NONE.
+     */
+    public int pattern(int state) {
+        return patterns[state].length > 0 ? patterns[state][0] : NONE;
+    }
+
+    /*
+     * Returns the sorted IDs of the patterns that a state accepts.
+     */
+    public int[] patterns(int state) {
+        return patterns[state].clone();
+    }
+
+    /*
+     * The number of states, counting the dead state.
+     */
+    public int stateCount() {
+        return patterns.length;
+    }
+
+    /*
+     * The number of classes of characters.
+     */
+    public int classCount() {
+        return classCount;
+    }
+
+    private int classOf(char c) {
+        if (c < LOW) {
+            return lowClasses[c];
+        }
+        int i = Arrays.binarySearch(bounds, c);
+        return intervalClasses[i >= 0 ? i : -i - 2];
+    }
+
+    /*
+     * Returns the range of characters in an interval.
+     */
+    private CharRange interval(int i) {
+        return new CharRange(bounds[i], i + 1 < bounds.length ? (char) (bounds[i + 1] - 1) : Character.MAX_VALUE);
+    }
+
+    /*
+     * Returns the sorted first characters of intervals, given as a set of characters that start an interval, where the
+     * NUL character always does and the (out of range) character after the last one is ignored.
+     */
+    static char[] bounds(BitSet starts) {
+        starts.set(0);
+        starts.clear(Character.MAX_VALUE + 1);
+        char[] bounds = new char[starts.cardinality()];
+        int i = 0;
+        for (int c = starts.nextSetBit(0); c >= 0; c = starts.nextSetBit(c + 1)) {
+            bounds[i++] = (char) c;
+        }
+        return bounds;
+    }
+
+    /*
+     * This DFA or the other DFA, by product construction. The classes of the product are the pairs of classes that some
+     * character falls into in this DFA and in the other DFA. A state of the product accepts the patterns of both of its
+     * states.
+     */
+    public Dfa union(Dfa other) {
+        return union(other, 0);
+    }
 
-        while (!queue.isEmpty()) {
-            NfaStateSet nfaFromStates = queue.poll();
-            State dfaFromState = dfaStates.get(nfaFromStates);
-            Map<Character, NfaStateSet> dfaTransitions = new HashMap<>();
-            for (State nfaFromState : nfaFromStates) {
-                if (nfa.acceptStates.contains(nfaFromState)) {
-                    this.acceptStates.add(dfaFromState);
+    /*
+     * This DFA or the other DFA, with the IDs of the patterns of the other DFA moved up by an offset so that they do not
+     * collide with the IDs of this DFA.
+     */
+    public Dfa union(Dfa other, int offset) {
+        // Pair up the classes, over the intervals that the intervals of both DFAs split the characters into.
+        BitSet starts = new BitSet();
+        for (char c : this.bounds) {
+            starts.set(c);
+        }
+        for (char c : other.bounds) {
+            starts.set(c);
+        }
+        char[] newBounds = bounds(starts);
+        int[] newIntervalClasses = new int[newBounds.length];
+        Map<Long, Integer> classPairs = new HashMap<>();
+        IntList pairs = new IntList();
+        for (int i = 0; i < newBounds.length; i++) {
+            int left = this.classOf(newBounds[i]);
+            int right = other.classOf(newBounds[i]);
+            Long key = (long) left * other.classCount + right;
+            Integer newClass = classPairs.get(key);
+            if (newClass == null) {
+                newClass = pairs.size / 2;
+                classPairs.put(key, newClass);
+                pairs.add(left);
+                pairs.add(right);
+            }
+            newIntervalClasses[i] = newClass;
+        }
+        int newClassCount = pairs.size / 2;
+
+        // Explore the reachable pairs of states. The pair of dead states is the dead state.
+        Map<Long, Integer> statePairs = new HashMap<>();
+        IntList queue = new IntList();
+        statePairs.put(0L, DEAD);
+        queue.add(DEAD);
+        queue.add(DEAD);
+        long startKey = (long) this.startState * other.stateCount() + other.startState;
+        if (startKey != 0L) {
+            statePairs.put(startKey, 1);
+            queue.add(this.startState);
+            queue.add(other.startState);
+        }
+        IntList newTable = new IntList();
+        List<int[]> newPatterns = new ArrayList<>();
+        IntList merged = new IntList();
+        for (int i = 0; i < queue.size; i += 2) {
+            int left = queue.values[i];
+            int right = queue.values[i + 1];
+            if (other.patterns[right].length == 0) {
+                newPatterns.add(this.patterns[left]);
+            } else {
+                merged.clear();
+                merged.addAll(this.patterns[left]);
+                for (int pattern : other.patterns[right]) {
+                    merged.add(pattern + offset);
+                }
+                newPatterns.add(merged.toSortedSet());
+            }
+            for (int k = 0; k < pairs.size; k += 2) {
+                int leftTarget = this.table[left * this.classCount + pairs.values[k]];
+                int rightTarget = other.table[right * other.classCount + pairs.values[k + 1]];
+                Long key = (long) leftTarget * other.stateCount() + rightTarget;
+                Integer target = statePairs.get(key);
+                if (target == null) {
+                    target = statePairs.size();
+                    statePairs.put(key, target);
+                    queue.add(leftTarget);
+                    queue.add(rightTarget);
                 }
-                for (Entry<Character, State> entry : nfaFromState.transitions.entries()) {
-                    NfaStateSet nfaTargetStates = dfaTransitions.get(entry.getKey());
-                    if (nfaTargetStates == null) {
-                        nfaTargetStates = new NfaStateSet();
-                        dfaTransitions.put(entry.getKey(), nfaTargetStates);
+                newTable.add(target);
+            }
+        }
+
+        return new Dfa(newPatterns.size() > 1 ? 1 : DEAD, newTable.toArray(),
+                newPatterns.toArray(new int[newPatterns.size()][]), newClassCount, newBounds, newIntervalClasses);
+    }
+
+    /*
+     * Minimizes this DFA by Hopcroft's partition refinement in O(kn log n) for n states and k classes, then merges the
+     * classes of characters that can no longer be told apart. States are only merged if they accept the same patterns.
+     * States from which no accept state can be reached end up in the block of the dead state, and states that cannot be
+     * reached are dropped. Unlike reversing and determinizing
+     * twice, the work is bounded by the size of this DFA rather than by the size of the DFA for the reversed language.
+     */
+    public Dfa minimize() {
+        int n = stateCount();
+
+        // Index the transitions by target and class, so that the sources of a state on a class can be enumerated.
+        int[] sourceStarts = new int[n * classCount + 1];
+        for (int i = 0; i < table.length; i++) {
+            sourceStarts[table[i] * classCount + i % classCount + 1]++;
+        }
+        for (int i = 0; i < n * classCount; i++) {
+            sourceStarts[i + 1] += sourceStarts[i];
+        }
+        int[] sources = new int[table.length];
+        int[] fill = Arrays.copyOf(sourceStarts, n * classCount);
+        for (int i = 0; i < table.length; i++) {
+            sources[fill[table[i] * classCount + i % classCount]++] = i / classCount;
+        }
+
+        // The blocks are runs of the elements array, each split into a marked prefix and the rest while refining.
+        int[] elements = new int[n];
+        int[] locations = new int[n];
+        int[] blocks = new int[n];
+        int[] firsts = new int[n];
+        int[] ends = new int[n];
+        int[] marks = new int[n];
+        Map<IntArray, Integer> groups = new HashMap<>();
+        int[] groupOf = new int[n];
+        IntList groupSizes = new IntList();
+        for (int s = 0; s < n; s++) {
+            IntArray key = new IntArray(patterns[s]);
+            Integer group = groups.get(key);
+            if (group == null) {
+                group = groups.size();
+                groups.put(key, group);
+                groupSizes.add(0);
+            }
+            groupOf[s] = group;
+            groupSizes.values[group]++;
+        }
+        int blockCount = groups.size();
+        for (int b = 1; b < blockCount; b++) {
+            firsts[b] = firsts[b - 1] + groupSizes.values[b - 1];
+        }
+        for (int b = 0; b < blockCount; b++) {
+            ends[b] = firsts[b];
+        }
+        for (int s = 0; s < n; s++) {
+            int b = groupOf[s];
+            elements[ends[b]] = s;
+            locations[s] = ends[b]++;
+            blocks[s] = b;
+        }
+        System.arraycopy(firsts, 0, marks, 0, blockCount);
+
+        // Refine the partition into states accepting the same patterns. Every block but the largest starts out as a
+        // splitter. Whenever a block splits, the smaller half becomes a new block and a splitter, which is what bounds
+        // each state to log n turns as part of a splitter.
+        IntList splitters = new IntList();
+        int largest = 0;
+        for (int b = 1; b < blockCount; b++) {
+            if (groupSizes.values[b] > groupSizes.values[largest]) {
+                largest = b;
+            }
+        }
+        for (int b = 0; b < blockCount; b++) {
+            if (b != largest) {
+                splitters.add(b);
+            }
+        }
+        IntList touched = new IntList();
+        int[] splitter = new int[n];
+        while (splitters.size > 0) {
+            int b = splitters.values[--splitters.size];
+            int size = ends[b] - firsts[b];
+            System.arraycopy(elements, firsts[b], splitter, 0, size);
+            for (int k = 0; k < classCount; k++) {
+                for (int j = 0; j < size; j++) {
+                    int key = splitter[j] * classCount + k;
+                    for (int i = sourceStarts[key]; i < sourceStarts[key + 1]; i++) {
+                        int s = sources[i];
+                        int block = blocks[s];
+                        int location = locations[s];
+                        if (location < marks[block]) {
+                            continue;
+                        }
+                        if (marks[block] == firsts[block]) {
+                            touched.add(block);
+                        }
+                        int other = elements[marks[block]];
+                        elements[location] = other;
+                        locations[other] = location;
+                        elements[marks[block]] = s;
+                        locations[s] = marks[block];
+                        marks[block]++;
+                    }
+                }
+                for (int t = 0; t < touched.size; t++) {
+                    int block = touched.values[t];
+                    int mid = marks[block];
+                    if (mid == ends[block]) {
+                        marks[block] = firsts[block];
+                        continue;
+                    }
+                    int newBlock = blockCount++;
+                    if (mid - firsts[block] <= ends[block] - mid) {
+                        firsts[newBlock] = firsts[block];
+                        ends[newBlock] = mid;
+                        firsts[block] = mid;
+                    } else {
+                        firsts[newBlock] = mid;
+                        ends[newBlock] = ends[block];
+                        ends[block] = mid;
                     }
-                    nfaTargetStates.add(entry.getValue());
+                    marks[block] = firsts[block];
+                    marks[newBlock] = firsts[newBlock];
+                    for (int i = firsts[newBlock]; i < ends[newBlock]; i++) {
+                        blocks[elements[i]] = newBlock;
+                    }
+                    splitters.add(newBlock);
+                }
+                touched.clear();
+            }
+        }
+
+        // Number the blocks in breadth-first order from the start state, with one state per block.
+        int[] numbers = new int[blockCount];
+        Arrays.fill(numbers, -1);
+        numbers[blocks[DEAD]] = DEAD;
+        IntList queue = new IntList();
+        queue.add(DEAD);
+        if (numbers[blocks[startState]] < 0) {
+            numbers[blocks[startState]] = 1;
+            queue.add(startState);
+        }
+        for (int i = 1; i < queue.size; i++) {
+            int s = queue.values[i];
+            for (int k = 0; k < classCount; k++) {
+                int block = blocks[table[s * classCount + k]];
+                if (numbers[block] < 0) {
+                    numbers[block] = queue.size;
+                    queue.add(table[s * classCount + k]);
                 }
             }
-            for (Entry<Character, NfaStateSet> entry : dfaTransitions.entrySet()) {
-                char symbol = entry.getKey();
-                NfaStateSet nfaToStates = entry.getValue();
-                nfaToStates.followEpsilons();
-                State dfaToState = dfaStates.get(nfaToStates);
+        }
+        int count = queue.size;
+        int[] newTable = new int[count * classCount];
+        int[][] newPatterns = new int[count][];
+        newPatterns[DEAD] = NO_PATTERNS;
+        for (int i = 1; i < count; i++) {
+            int s = queue.values[i];
+            newPatterns[i] = patterns[s];
+            for (int k = 0; k < classCount; k++) {
+                newTable[i * classCount + k] = numbers[blocks[table[s * classCount + k]]];
+            }
+        }
+
+        return compress(count > 1 ? 1 : DEAD, newTable, newPatterns, classCount, bounds, intervalClasses);
+    }
+
+    /*
+     * Merges the classes of characters whose columns of the transition table are identical.
+     */
+    private static Dfa compress(int startState, int[] table, int[][] patterns, int classCount, char[] bounds,
+                                int[] intervalClasses) {
+        int n = patterns.length;
+        Map<IntArray, Integer> columns = new HashMap<>();
+        int[] merged = new int[classCount];
+        for (int k = 0; k < classCount; k++) {
+            int[] column = new int[n];
+            for (int s = 0; s < n; s++) {
+                column[s] = table[s * classCount + k];
+            }
+            IntArray key = new IntArray(column);
+            Integer newClass = columns.get(key);
+            if (newClass == null) {
+                newClass = columns.size();
+                columns.put(key, newClass);
+            }
+            merged[k] = newClass;
+        }
+
+        int newClassCount = columns.size();
+        int[] newTable = table;
+        if (newClassCount < classCount) {
+            newTable = new int[n * newClassCount];
+            for (int s = 0; s < n; s++) {
+                for (int k = 0; k < classCount; k++) {
+                    newTable[s * newClassCount + merged[k]] = table[s * classCount + k];
+                }
+            }
+        }
+        int[] newIntervalClasses = new int[intervalClasses.length];
+        for (int i = 0; i < intervalClasses.length; i++) {
+            newIntervalClasses[i] = merged[intervalClasses[i]];
+        }
+        return new Dfa(startState, newTable, patterns, newClassCount, bounds, newIntervalClasses);
+    }
+
+    /*
+     * Reverses the DFA into an NFA, with one transition per interval of characters. Transitions into the dead state are
+     * dropped. The start state becomes the only accept state, so the patterns are lost and all of the reversed language
+     * is reported as pattern 0.
+     */
+    Nfa reverse() {
+        State[] states = new State[stateCount()];
+        for (int s = 1; s < states.length; s++) {
+            states[s] = new State();
+        }
+
+        CharRange[] ranges = new CharRange[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            ranges[i] = interval(i);
+        }
+        for (int s = 1; s < states.length; s++) {
+            for (int i = 0; i < bounds.length; i++) {
+                int target = table[s * classCount + intervalClasses[i]];
+                if (target != DEAD) {
+                    states[target].transitions.put(ranges[i], states[s]);
+                }
+            }
+        }
+        Nfa result = new Nfa();
+        for (int s = 1; s < states.length; s++) {
+            if (patterns[s].length > 0) {
+                result.startState.epsilonTransitions.add(states[s]);
+            }
+        }
+        if (startState != DEAD) {
+            result.acceptStates.add(states[startState]);
+        }
+        return result;
+    }
+
+    /*
+     * Subset construction. Each DFA state is keyed by a sorted array of NFA state numbers rather than by a set of states.
+     * Each interval of characters starts out in a class of its own, and the classes are merged once the table is built.
+     */
+    private static Dfa determinize(Nfa nfa) {
+        NfaProgram program = new NfaProgram(nfa);
+        int classCount = program.bounds.length;
+        int[] intervalClasses = new int[classCount];
+        for (int i = 0; i < classCount; i++) {
+            intervalClasses[i] = i;
+        }
+
+        Map<IntArray, Integer> dfaStates = new HashMap<>();
+        List<IntArray> queue = new ArrayList<>();
+        IntArray deadSet = new IntArray(new int[0]);
+        dfaStates.put(deadSet, DEAD);
+        queue.add(deadSet);
+        IntArray startSet = new IntArray(program.start);
+        if (!startSet.equals(deadSet)) {
+            dfaStates.put(startSet, 1); // otherwise the start state is one more state that goes nowhere
+        }
+        queue.add(startSet);
+
+        IntList table = new IntList();
+        List<int[]> patterns = new ArrayList<>();
+        IntList scratch = new IntList();
+        IntList[] dfaTransitions = new IntList[classCount];
+        for (int i = 0; i < classCount; i++) {
+            dfaTransitions[i] = new IntList();
+        }
+        for (int d = 0; d < queue.size(); d++) {
+            for (IntList nfaTargetStates : dfaTransitions) {
+                nfaTargetStates.clear();
+            }
+            int[] nfaFromStates = queue.get(d).values;
+            for (int nfaFromState : nfaFromStates) {
+                int[] targets = program.targets[nfaFromState];
+                for (int t = 0; t < targets.length; t++) {
+                    for (int k = program.firsts[nfaFromState][t]; k <= program.lasts[nfaFromState][t]; k++) {
+                        dfaTransitions[k].addAll(program.closures[targets[t]]);
+                    }
+                }
+            }
+            patterns.add(program.patterns(nfaFromStates, scratch));
+            for (IntList nfaTargetStates : dfaTransitions) {
+                IntArray nfaToStates = new IntArray(nfaTargetStates.toSortedSet());
+                Integer dfaToState = dfaStates.get(nfaToStates);
                 if (dfaToState == null) {
-                    dfaToState = new State();
+                    dfaToState = queue.size();
                     dfaStates.put(nfaToStates, dfaToState);
                     queue.add(nfaToStates);
                 }
-                dfaFromState.transitions.put(symbol, dfaToState);
+                table.add(dfaToState);
             }
         }
 
-        for (State state : dfaStates.values()) {
-            for (Entry<Character, State> entry : state.transitions.entries()) {
-                char symbol = entry.getKey();
-                State target = entry.getValue();
-                transitions.put(new SimpleImmutableEntry<>(state, symbol), target);
+        return compress(1, table.toArray(), patterns.toArray(new int[patterns.size()][]), classCount, program.bounds,
+                intervalClasses);
+    }
+
+    /*
+     * The number of bytes that writeTo() writes.
+     */
+    public long serializedSize() {
+        return format().size();
+    }
+
+    /*
+     * Writes the DFA in the binary format of DfaFormat at the position of a buffer, and moves the position past it. The
+     * format is the one that MappedDfa runs from directly.
+     */
+    public void writeTo(ByteBuffer out) {
+        DfaFormat format = format();
+        if (out.remaining() < format.size()) {
+            throw new BufferOverflowException();
+        }
+        ByteBuffer buffer = out.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int position = out.position();
+        buffer.position(position + format.lowClassesOffset());
+        buffer.asIntBuffer().put(lowClasses);
+        buffer.position(position + format.tableOffset());
+        buffer.asIntBuffer().put(table);
+        buffer.position(position + format.intervalClassesOffset());
+        buffer.asIntBuffer().put(intervalClasses);
+        buffer.position(position + format.patternStartsOffset());
+        IntBuffer patternStarts = buffer.asIntBuffer();
+        int start = 0;
+        for (int[] ids : patterns) {
+            patternStarts.put(start);
+            start += ids.length;
+        }
+        patternStarts.put(start);
+        buffer.position(position + format.patternIdsOffset());
+        IntBuffer patternIds = buffer.asIntBuffer();
+        for (int[] ids : patterns) {
+            patternIds.put(ids);
+        }
+        buffer.position(position + format.boundsOffset());
+        buffer.asCharBuffer().put(bounds);
+        buffer.position(position);
+        format.writeHeader(buffer);
+        out.position(position + (int) format.size());
+    }
+
+    /*
+     * Reads a DFA written by writeTo() at the position of a buffer, and moves the position past it. The tables are
+     * copied out of the buffer; MappedDfa runs a DFA without copying it.
+     *
+     * Throws IllegalArgumentException if the buffer does not hold a DFA of the current version, or fails its checksum.
+     */
+    public static Dfa readFrom(ByteBuffer in) {
+        ByteBuffer buffer = in.duplicate().order(ByteOrder.BIG_ENDIAN);
+        DfaFormat format = DfaFormat.read(buffer);
+        int position = in.position();
+        int n = format.stateCount;
+        int[] table = new int[n * format.classCount];
+        buffer.position(position + format.tableOffset());
+        buffer.asIntBuffer().get(table);
+        int[] intervalClasses = new int[format.intervalCount];
+        buffer.position(position + format.intervalClassesOffset());
+        buffer.asIntBuffer().get(intervalClasses);
+        int[] patternStarts = new int[n + 1];
+        buffer.position(position + format.patternStartsOffset());
+        buffer.asIntBuffer().get(patternStarts);
+        int[] patternIds = new int[format.patternCount];
+        buffer.position(position + format.patternIdsOffset());
+        buffer.asIntBuffer().get(patternIds);
+        char[] bounds = new char[format.intervalCount];
+        buffer.position(position + format.boundsOffset());
+        buffer.asCharBuffer().get(bounds);
+
+        int[][] patterns = new int[n][];
+        for (int s = 0; s < n; s++) {
+            if (patternStarts[s] < 0 || patternStarts[s] > patternStarts[s + 1]
+                    || patternStarts[s + 1] > patternIds.length) {
+                throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+            }
+            patterns[s] = patternStarts[s] == patternStarts[s + 1]
+                    ? NO_PATTERNS : Arrays.copyOfRange(patternIds, patternStarts[s], patternStarts[s + 1]);
+        }
+        for (int target : table) {
+            if (target < 0 || target >= n) {
+                throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
             }
         }
+        for (int k : intervalClasses) {
+            if (k < 0 || k >= format.classCount) {
+                throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+            }
+        }
+        if (bounds[0] != 0) {
+            throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+        }
+        in.position(position + (int) format.size());
+        return new Dfa(format.startState, table, patterns, format.classCount, bounds, intervalClasses);
     }
 
-    private class NfaStateSet extends HashSet<State> {
-        NfaStateSet(State... states) {
-            this.addAll(Arrays.asList(states));
+    private DfaFormat format() {
+        int patternCount = 0;
+        for (int[] ids : patterns) {
+            patternCount += ids.length;
+        }
+        return new DfaFormat(stateCount(), classCount, startState, bounds.length, patternCount);
+    }
+
+    /*
+     * The position of one run of a DFA over its input. A cursor is cheap to create and is not thread-safe, unlike the
+     * DFA it runs, so each thread runs its own cursors over a shared DFA.
+     */
+    public static final class Cursor {
+        private final Dfa dfa;
+        private int state;
+
+        private Cursor(Dfa dfa) {
+            this.dfa = dfa;
+            this.state = dfa.startState;
         }
-        public void followEpsilons() {
-            Queue<State> queue = new LinkedList<>();
-            queue.addAll(this);
-            while (!queue.isEmpty()) {
-                State s = queue.poll();
-                queue.addAll(s.epsilonTransitions.stream()
-                        .filter(this::add)
-                        .collect(Collectors.toList()));
+
+        public void consume(char c) {
+            state = dfa.next(state, c);
+        }
+
+        public void consume(CharSequence input) {
+            for (int i = 0; i < input.length() && state != DEAD; i++) {
+                state = dfa.next(state, input.charAt(i));
             }
         }
+
+        public boolean accept() {
+            return dfa.isAccepting(state);
+        }
+
+        /*
+         * Returns the highest priority pattern accepted so far, or NONE.
+         */
+        public int pattern() {
+            return dfa.pattern(state);
+        }
+
+        public int state() {
+            return state;
+        }
+
+        /*
+         * Returns to the start state so that the cursor can consume another input.
+         */
+        public void reset() {
+            state = dfa.startState;
+        }
     }
 
 }
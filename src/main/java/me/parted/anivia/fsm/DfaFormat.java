@@ -0,0 +1,136 @@
+package me.parted.anivia.fsm;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/*
+ * The binary format of a compiled DFA, laid out so that a DFA can be run straight from a (memory-mapped) buffer. All
+ * values are big-endian, and the ints come before the chars so that every int is aligned to four bytes:
+ *
+ *   int    magic               "DFA" followed by a zero byte
+ *   short  version
+ *   short  flags               zero
+ *   int    stateCount          n, counting the dead state
+ *   int    classCount          k
+ *   int    startState
+ *   int    intervalCount       m
+ *   int    patternCount        p, the total number of pattern IDs over all states
+ *   int    checksum            CRC-32 of everything after the header
+ *   int[LOW]   the class of each character below LOW
+ *   int[n * k] the transition table
+ *   int[m]     the class of each interval
+ *   int[n + 1] where the pattern IDs of each state start
+ *   int[p]     the pattern IDs of all states
+ *   char[m]    the first character of each interval
+ */
+final class DfaFormat {
+
+    static final int MAGIC = 0x44464100;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int LOW = 256;
+
+    final int stateCount;
+    final int classCount;
+    final int startState;
+    final int intervalCount;
+    final int patternCount;
+
+    DfaFormat(int stateCount, int classCount, int startState, int intervalCount, int patternCount) {
+        this.stateCount = stateCount;
+        this.classCount = classCount;
+        this.startState = startState;
+        this.intervalCount = intervalCount;
+        this.patternCount = patternCount;
+    }
+
+    /*
+     * Reads and verifies the header at the position of a buffer, and checks the payload against the checksum.
+     */
+    static DfaFormat read(ByteBuffer in) {
+        if (in.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("The buffer is too short for a compiled DFA.");
+        }
+        int position = in.position();
+        if (in.getInt(position) != MAGIC) {
+            throw new IllegalArgumentException("The buffer does not hold a compiled DFA.");
+        }
+        if (in.getShort(position + 4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported compiled DFA version " + in.getShort(position + 4) + ".");
+        }
+        DfaFormat format = new DfaFormat(in.getInt(position + 8), in.getInt(position + 12), in.getInt(position + 16),
+                in.getInt(position + 20), in.getInt(position + 24));
+        /* Each count is bounded by the buffer before size() adds them up, so that a corrupt count cannot wrap it. */
+        int remaining = in.remaining();
+        if (format.stateCount < 1 || format.classCount < 1 || format.intervalCount < 1 || format.patternCount < 0
+                || format.startState < 0 || format.startState >= format.stateCount
+                || (long) format.stateCount * format.classCount > Integer.MAX_VALUE / 8
+                || (long) format.stateCount * format.classCount > remaining / 4
+                || format.intervalCount > remaining / 6 || format.patternCount > remaining / 4
+                || format.size() > remaining) {
+            throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+        }
+        ByteBuffer payload = in.duplicate();
+        payload.position(position + HEADER_SIZE).limit(position + (int) format.size());
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != in.getInt(position + 28)) {
+            throw new IllegalArgumentException("The compiled DFA does not match its checksum.");
+        }
+        return format;
+    }
+
+    /*
+     * Writes the header at the position of a buffer whose payload has already been written after it.
+     */
+    void writeHeader(ByteBuffer out) {
+        int position = out.position();
+        ByteBuffer payload = out.duplicate();
+        payload.position(position + HEADER_SIZE).limit(position + (int) size());
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.putInt(position, MAGIC);
+        out.putShort(position + 4, (short) VERSION);
+        out.putShort(position + 6, (short) 0);
+        out.putInt(position + 8, stateCount);
+        out.putInt(position + 12, classCount);
+        out.putInt(position + 16, startState);
+        out.putInt(position + 20, intervalCount);
+        out.putInt(position + 24, patternCount);
+        out.putInt(position + 28, (int) crc.getValue());
+    }
+
+    /*
+     * The size in bytes of the whole DFA, in a long since the counts of a corrupt header may add up past an int. The
+     * offsets below fit in an int once the size has been checked against a buffer.
+     */
+    long size() {
+        return HEADER_SIZE + 4L * LOW + 4L * stateCount * classCount + 6L * intervalCount + 4L * (stateCount + 1L)
+                + 4L * patternCount;
+    }
+
+    int lowClassesOffset() {
+        return HEADER_SIZE;
+    }
+
+    int tableOffset() {
+        return lowClassesOffset() + 4 * LOW;
+    }
+
+    int intervalClassesOffset() {
+        return tableOffset() + 4 * stateCount * classCount;
+    }
+
+    int patternStartsOffset() {
+        return intervalClassesOffset() + 4 * intervalCount;
+    }
+
+    int patternIdsOffset() {
+        return patternStartsOffset() + 4 * (stateCount + 1);
+    }
+
+    int boundsOffset() {
+        return patternIdsOffset() + 4 * patternCount;
+    }
+
+}
@@ -1,5 +1,10 @@
 package me.parted.anivia.fsm;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class FsmBuilder {
 
     private final Nfa nfa;
@@ -121,16 +126,54 @@ public class FsmBuilder {
      * This NFA concatenated with one state for which there are a number of symbols.
      */
     public FsmBuilder followedBy(char[] symbols) {
+        List<CharRange> ranges = new ArrayList<>(symbols.length);
+        for (char c : symbols) {
+            ranges.add(CharRange.of(c));
+        }
+        return followedBy(ranges);
+    }
+
+    /*
+     * This NFA concatenated with one state for which there is any symbol from first to last inclusive.
+     */
+    public FsmBuilder followedBy(char first, char last) {
+        return followedBy(Collections.singletonList(new CharRange(first, last)));
+    }
+
+    /*
+     * This NFA concatenated with one state for which there is any symbol except for a number of symbols.
+     */
+    public FsmBuilder followedByNoneOf(char[] symbols) {
+        char[] excluded = symbols.clone();
+        Arrays.sort(excluded);
+        List<CharRange> ranges = new ArrayList<>(excluded.length + 1);
+        int first = Character.MIN_VALUE;
+        for (char c : excluded) {
+            if (c > first) {
+                ranges.add(new CharRange((char) first, (char) (c - 1)));
+            }
+            first = Math.max(first, c + 1);
+        }
+        if (first <= Character.MAX_VALUE) {
+            ranges.add(new CharRange((char) first, Character.MAX_VALUE));
+        }
+        return followedBy(ranges);
+    }
+
+    /*
+     * This NFA concatenated with one state for which there are a number of ranges of symbols.
+     */
+    private FsmBuilder followedBy(List<CharRange> ranges) {
         State end = new State();
         if (nfa.acceptStates.isEmpty()) {
-            for (char c : symbols) {
-                nfa.startState.transitions.put(c, end);
+            for (CharRange range : ranges) {
+                nfa.startState.transitions.put(range, end);
             }
         }
         else {
             for (State s : nfa.acceptStates) {
-                for (char c : symbols) {
-                    s.transitions.put(c, end);
+                for (CharRange range : ranges) {
+                    s.transitions.put(range, end);
                 }
             }
         }
@@ -139,7 +182,31 @@ public class FsmBuilder {
         return this;
     }
 
+    /*
+     * This NFA, reporting the given pattern ID when it accepts. Accept states are tagged with pattern 0 by default.
+     */
+    public FsmBuilder tagged(int pattern) {
+        for (State s : nfa.acceptStates) {
+            s.pattern = pattern;
+        }
+        return this;
+    }
+
     public Dfa build() {
         return nfa.minimize();
     }
+
+    /*
+     * Builds a DFA that is determinized lazily while matching, caching at most maxStates states.
+     */
+    public LazyDfa buildLazy(int maxStates) {
+        return new LazyDfa(nfa, maxStates);
+    }
+
+    /*
+     * Builds the minimal DFA by Brzozowski's algorithm instead, for comparison.
+     */
+    Dfa buildByReversal() {
+        return nfa.minimizeByReversal();
+    }
 }
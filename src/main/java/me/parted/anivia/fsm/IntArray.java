@@ -0,0 +1,26 @@
+package me.parted.anivia.fsm;
+
+import java.util.Arrays;
+
+/*
+ * An array of ints usable as a hash key, such as a set of NFA states or a row of the transition table.
+ */
+final class IntArray {
+    final int[] values;
+    final int hash;
+
+    IntArray(int[] values) {
+        this.values = values;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IntArray && Arrays.equals(values, ((IntArray) obj).values);
+    }
+}
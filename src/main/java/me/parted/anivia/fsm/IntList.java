@@ -0,0 +1,45 @@
+package me.parted.anivia.fsm;
+
+import java.util.Arrays;
+
+/*
+ * A growable list of ints, for building tables without boxing.
+ */
+final class IntList {
+    int[] values = new int[8];
+    int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void addAll(int[] other) {
+        if (size + other.length > values.length) {
+            values = Arrays.copyOf(values, Math.max(size * 2, size + other.length));
+        }
+        System.arraycopy(other, 0, values, size, other.length);
+        size += other.length;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    int[] toSortedSet() {
+        Arrays.sort(values, 0, size);
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (n == 0 || values[n - 1] != values[i]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+}
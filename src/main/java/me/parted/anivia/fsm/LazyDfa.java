@@ -0,0 +1,189 @@
+package me.parted.anivia.fsm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * A DFA that is determinized lazily, one state at a time as input reaches it, in the manner of RE2. Subset construction
+ * of a large union of patterns can take exponential time and memory, most of it on states that no real input reaches,
+ * so instead the states are built on demand and cached. The cache holds at most maxStates states and is flushed whole
+ * when it fills up. When it fills up again within too few characters per state the cache is thrashing, and the rest of
+ * that input is run by simulating the NFA directly, which is slower per character but builds no states.
+ *
+ * A lazy DFA is not thread-safe, since matching fills in its cache. Threads sharing an automaton each run their own
+ * copy(), which shares everything but the cache.
+ */
+public class LazyDfa {
+
+    /*
+     * The number of characters of input per cached state below which a cache that fills up is thrashing.
+     */
+    static final int MIN_CHARS_PER_STATE = 10;
+
+    private static final int UNKNOWN = -1;
+
+    private final NfaProgram program;
+    private final int maxStates;
+
+    private final Map<IntArray, Integer> index = new HashMap<>();
+    private final int[][] sets;         // the NFA states of each cached state
+    private final int[][] patterns;     // the patterns accepted by each cached state
+    private final int intervals;
+    private int[] table;                // the cached state reached from each state on each interval, or UNKNOWN
+    private int size;
+    private int start = UNKNOWN;        // the cached start state
+    private int dead = UNKNOWN;         // the cached state for the empty set of NFA states
+    private long chars;                  // the characters of input run since the last flush
+
+    private final IntList scratch = new IntList();
+    private long flushes;
+    private long fallbacks;
+
+    /*
+     * constructs a lazy DFA. from the NFA, which caches at most maxStates states.
+     */
+    public LazyDfa(Nfa nfa, int maxStates) {
+        this(new NfaProgram(nfa), maxStates);
+    }
+
+    private LazyDfa(NfaProgram program, int maxStates) {
+        if (maxStates < 2) {
+            throw new IllegalArgumentException("The cache must hold at least two states.");
+        }
+        this.program = program;
+        this.maxStates = maxStates;
+        this.sets = new int[maxStates][];
+        this.patterns = new int[maxStates][];
+        this.intervals = program.bounds.length;
+        this.table = new int[Math.min(maxStates, 16) * intervals];
+    }
+
+    /*
+     * Returns a lazy DFA for the same NFA, with an empty cache of its own.
+     */
+    public LazyDfa copy() {
+        return new LazyDfa(program, maxStates);
+    }
+
+    /*
+     * Returns true if the DFA accepts the whole of an input.
+     */
+    public boolean matches(CharSequence input) {
+        return run(input).length > 0;
+    }
+
+    /*
+     * Returns the sorted IDs of the patterns that accept the whole of an input.
+     */
+    public int[] patterns(CharSequence input) {
+        return run(input).clone();
+    }
+
+    /*
+     * The number of states in the cache.
+     */
+    public int cachedStates() {
+        return size;
+    }
+
+    /*
+     * The number of times that the cache has filled up and been flushed.
+     */
+    public long flushes() {
+        return flushes;
+    }
+
+    /*
+     * The number of inputs that were finished by simulating the NFA because the cache was thrashing.
+     */
+    public long fallbacks() {
+        return fallbacks;
+    }
+
+    private int[] run(CharSequence input) {
+        if (start == UNKNOWN) {
+            start = lookup(program.start);
+        }
+        if (start == UNKNOWN) {
+            if (size == maxStates) {
+                flush();
+            }
+            start = add(program.start);
+        }
+        int state = start;
+
+        long run = 0;
+        for (int i = 0; i < input.length() && state != dead; i++) {
+            int interval = program.intervalOf(input.charAt(i));
+            int next = table[state * intervals + interval];
+            if (next == UNKNOWN) {
+                chars += run;
+                run = 0;
+                int[] set = program.successor(sets[state], interval, scratch);
+                next = lookup(set);
+                if (next == UNKNOWN) {
+                    if (size == maxStates) {
+                        boolean thrashing = chars < (long) MIN_CHARS_PER_STATE * size;
+                        flush();
+                        if (thrashing) {
+                            return simulate(set, input, i + 1);
+                        }
+                        state = UNKNOWN;
+                    }
+                    next = add(set);
+                }
+                if (state != UNKNOWN) {
+                    table[state * intervals + interval] = next;
+                }
+            }
+            state = next;
+            run++;
+        }
+        chars += run;
+        return patterns[state];
+    }
+
+    /*
+     * Runs the rest of an input through the NFA without caching any states.
+     */
+    private int[] simulate(int[] set, CharSequence input, int from) {
+        fallbacks++;
+        for (int i = from; i < input.length() && set.length > 0; i++) {
+            set = program.successor(set, program.intervalOf(input.charAt(i)), scratch);
+        }
+        return program.patterns(set, scratch);
+    }
+
+    private int lookup(int[] set) {
+        Integer state = index.get(new IntArray(set));
+        return state != null ? state : UNKNOWN;
+    }
+
+    private int add(int[] set) {
+        int state = size++;
+        index.put(new IntArray(set), state);
+        sets[state] = set;
+        patterns[state] = program.patterns(set, scratch);
+        if (table.length < size * intervals) {
+            table = Arrays.copyOf(table, Math.min(maxStates, size * 2) * intervals);
+        }
+        Arrays.fill(table, state * intervals, size * intervals, UNKNOWN);
+        if (set.length == 0) {
+            dead = state;
+        }
+        return state;
+    }
+
+    private void flush() {
+        index.clear();
+        Arrays.fill(sets, null);
+        Arrays.fill(patterns, null);
+        size = 0;
+        start = UNKNOWN;
+        dead = UNKNOWN;
+        chars = 0;
+        flushes++;
+    }
+
+}
@@ -0,0 +1,187 @@
+package me.parted.anivia.fsm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * A DFA that runs straight from a buffer in the format written by Dfa.writeTo(), typically a file mapped into memory,
+ * without copying its tables onto the heap. Opening one costs a pass over the buffer to check the checksum and that
+ * every state, class and pattern start in the tables is in range, as Dfa.readFrom() does, after which the pages of the
+ * table are read in by the operating system as input reaches them, and are shared between processes mapping the same
+ * file.
+ *
+ * States and patterns are numbered as in the Dfa that was written. A mapped DFA is immutable and thread-safe, as long
+ * as the file it maps is not changed while it is in use; a new version of the file should be written elsewhere and
+ * moved into place, and then opened again.
+ */
+public final class MappedDfa {
+
+    private final ByteBuffer buffer;
+    private final DfaFormat format;
+    private final int table;
+    private final int intervalClasses;
+    private final int patternStarts;
+    private final int patternIds;
+    private final int bounds;
+
+    private MappedDfa(ByteBuffer buffer, DfaFormat format) {
+        this.buffer = buffer;
+        this.format = format;
+        this.table = format.tableOffset();
+        this.intervalClasses = format.intervalClassesOffset();
+        this.patternStarts = format.patternStartsOffset();
+        this.patternIds = format.patternIdsOffset();
+        this.bounds = format.boundsOffset();
+    }
+
+    /*
+     * Runs the DFA at the position of a buffer, which must not be changed afterwards.
+     *
+     * Throws IllegalArgumentException if the buffer does not hold a DFA of the current version, fails its checksum, or
+     * holds a state, class or pattern start out of range.
+     */
+    public static MappedDfa map(ByteBuffer buffer) {
+        ByteBuffer slice = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        DfaFormat format = DfaFormat.read(slice);
+        slice.limit((int) format.size());
+        MappedDfa dfa = new MappedDfa(slice, format);
+        dfa.verify();
+        return dfa;
+    }
+
+    /*
+     * Maps a file holding a DFA written by Dfa.writeTo() into memory, read-only.
+     *
+     * Throws IOException if the file cannot be read, or does not hold a DFA of the current version.
+     */
+    public static MappedDfa open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return map(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Copies the tables onto the heap, for a DFA that can be combined with others.
+     */
+    public Dfa toDfa() {
+        return Dfa.readFrom(buffer.duplicate());
+    }
+
+    public boolean matches(CharSequence input) {
+        return isAccepting(run(input));
+    }
+
+    /*
+     * Returns the state reached from the start state on an input, stopping early once the dead state is reached.
+     */
+    public int run(CharSequence input) {
+        int state = format.startState;
+        for (int i = 0; i < input.length() && state != Dfa.DEAD; i++) {
+            state = next(state, input.charAt(i));
+        }
+        return state;
+    }
+
+    public int start() {
+        return format.startState;
+    }
+
+    public int next(int state, char c) {
+        return buffer.getInt(table + 4 * (state * format.classCount + classOf(c)));
+    }
+
+    public boolean isAccepting(int state) {
+        return patternStart(state) < patternStart(state + 1);
+    }
+
+    /*
+     * Returns the lowest ID of the patterns that a state accepts, or NONE.
+     */
+    public int pattern(int state) {
+        int start = patternStart(state);
+        return start < patternStart(state + 1) ? buffer.getInt(patternIds + 4 * start) : Dfa.NONE;
+    }
+
+    /*
+     * Returns the sorted IDs of the patterns that a state accepts.
+     */
+    public int[] patterns(int state) {
+        int start = patternStart(state);
+        int[] patterns = new int[patternStart(state + 1) - start];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = buffer.getInt(patternIds + 4 * (start + i));
+        }
+        return patterns;
+    }
+
+    public int stateCount() {
+        return format.stateCount;
+    }
+
+    public int classCount() {
+        return format.classCount;
+    }
+
+    /*
+     * Checks the tables that run() indexes with what it reads, so that a corrupt DFA fails here rather than on input.
+     */
+    private void verify() {
+        for (int c = 0; c < DfaFormat.LOW; c++) {
+            checkRange(buffer.getInt(format.lowClassesOffset() + 4 * c), format.classCount);
+        }
+        for (int i = 0; i < format.stateCount * format.classCount; i++) {
+            checkRange(buffer.getInt(table + 4 * i), format.stateCount);
+        }
+        for (int i = 0; i < format.intervalCount; i++) {
+            checkRange(buffer.getInt(intervalClasses + 4 * i), format.classCount);
+        }
+        int start = 0;
+        for (int s = 0; s <= format.stateCount; s++) {
+            int next = patternStart(s);
+            if (next < start || next > format.patternCount) {
+                throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+            }
+            start = next;
+        }
+        if (buffer.getChar(bounds) != 0) {
+            throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+        }
+    }
+
+    private static void checkRange(int value, int count) {
+        if (value < 0 || value >= count) {
+            throw new IllegalArgumentException("The compiled DFA is truncated or corrupt.");
+        }
+    }
+
+    private int patternStart(int state) {
+        return buffer.getInt(patternStarts + 4 * state);
+    }
+
+    private int classOf(char c) {
+        if (c < DfaFormat.LOW) {
+            return buffer.getInt(format.lowClassesOffset() + 4 * c);
+        }
+        // The last interval starting at or before the character.
+        int low = 0;
+        int high = format.intervalCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (buffer.getChar(bounds + 2 * mid) <= c) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return buffer.getInt(intervalClasses + 4 * low);
+    }
+
+}
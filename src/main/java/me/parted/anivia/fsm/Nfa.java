@@ -21,8 +21,9 @@ class Nfa {
         for (Entry<State, State> entry : newStates.entrySet()) {
             State oldState = entry.getKey();
             State newState = entry.getValue();
-            for (Entry<Character, State> transition : oldState.transitions.entries()) {
-                char symbol = transition.getKey();
+            newState.pattern = oldState.pattern;
+            for (Entry<CharRange, State> transition : oldState.transitions.entries()) {
+                CharRange symbol = transition.getKey();
                 State result = transition.getValue();
                 newState.transitions.put(symbol, newStates.get(result));
             }
@@ -42,7 +43,7 @@ class Nfa {
         this.acceptStates = new HashSet<>();
     }
 
-    private Set<State> getStates() {
+    Set<State> getStates() {
         Set<State> states = new HashSet<>();
         states.add(startState);
 
@@ -74,7 +75,7 @@ class Nfa {
 
         for (State oldFromState : states) {
             State newToState = newStates.get(oldFromState);
-            for (Entry<Character, State> entry : oldFromState.transitions.entries()) {
+            for (Entry<CharRange, State> entry : oldFromState.transitions.entries()) {
                 State newFromState = newStates.get(entry.getValue());
                 newFromState.transitions.put(entry.getKey(), newToState);
             }
@@ -88,7 +89,7 @@ class Nfa {
         result.startState.epsilonTransitions.addAll(this.acceptStates.stream()
                 .map(newStates::get)
                 .collect(Collectors.toList()));
-        result.acceptStates.add(this.startState);
+        result.acceptStates.add(newStates.get(this.startState));
 
         return result;
     }
@@ -101,9 +102,17 @@ class Nfa {
     }
 
     /*
-     * Minimizes this NFA into a DFA.
+     * Minimizes this NFA into a DFA, by subset construction followed by Hopcroft's algorithm.
      */
     public Dfa minimize() {
+        return toDfa().minimize();
+    }
+
+    /*
+     * Minimizes this NFA into a DFA by reversing and determinizing it twice (Brzozowski's algorithm). Either subset
+     * construction can take exponential time, so this is kept for comparison only.
+     */
+    Dfa minimizeByReversal() {
         return reverse().toDfa().reverse().toDfa();
     }
 }
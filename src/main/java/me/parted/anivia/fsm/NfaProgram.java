@@ -0,0 +1,153 @@
+package me.parted.anivia.fsm;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/*
+ * An NFA flattened into arrays over numbered states, for subset construction. The characters are split into the
+ * intervals that no transition starts or ends inside of, so that each transition covers a run of whole intervals, and
+ * the epsilon closure of every state is computed once up front as a sorted array of state numbers.
+ *
+ * The closures only hold the states that have a transition or accept. A state that does neither, such as the start
+ * state that reversing adds in front of the old accept states, changes nothing about where a set of states can go or
+ * what it accepts, but would still tell apart sets that behave alike and so leave the DFA with redundant states.
+ */
+final class NfaProgram {
+
+    final char[] bounds;        // the first character of each interval
+    final int[][] firsts;       // the first interval covered by each transition of each state
+    final int[][] lasts;        // the last interval covered by each transition of each state
+    final int[][] targets;      // the target of each transition of each state
+    final int[][] closures;     // the states of the epsilon closure of each state that have a transition or accept
+    final int[] accepts;        // the pattern accepted by each state, or NONE
+    final int[] start;          // the closure of the start state
+
+    private final int[] lowIntervals = new int[256];
+
+    NfaProgram(Nfa nfa) {
+        List<State> states = new ArrayList<>(nfa.getStates());
+        Map<State, Integer> ids = new HashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            ids.put(states.get(i), i);
+        }
+
+        BitSet starts = new BitSet();
+        for (State state : states) {
+            for (CharRange range : state.transitions.keySet()) {
+                starts.set(range.first);
+                starts.set(range.last + 1);
+            }
+        }
+        bounds = Dfa.bounds(starts);
+        for (int i = 0; i < bounds.length && bounds[i] < lowIntervals.length; i++) {
+            int end = i + 1 < bounds.length ? Math.min(bounds[i + 1], lowIntervals.length) : lowIntervals.length;
+            Arrays.fill(lowIntervals, bounds[i], end, i);
+        }
+
+        int n = states.size();
+        firsts = new int[n][];
+        lasts = new int[n][];
+        targets = new int[n][];
+        accepts = new int[n];
+        for (int i = 0; i < n; i++) {
+            State state = states.get(i);
+            firsts[i] = new int[state.transitions.size()];
+            lasts[i] = new int[state.transitions.size()];
+            targets[i] = new int[state.transitions.size()];
+            int t = 0;
+            for (Entry<CharRange, State> entry : state.transitions.entries()) {
+                firsts[i][t] = Arrays.binarySearch(bounds, entry.getKey().first);
+                lasts[i][t] = intervalOf(entry.getKey().last);
+                targets[i][t] = ids.get(entry.getValue());
+                t++;
+            }
+            accepts[i] = nfa.acceptStates.contains(state) ? state.pattern : Dfa.NONE;
+        }
+        closures = closures(states, ids);
+        IntList important = new IntList();
+        for (int i = 0; i < n; i++) {
+            important.clear();
+            for (int state : closures[i]) {
+                if (targets[state].length > 0 || accepts[state] != Dfa.NONE) {
+                    important.add(state);
+                }
+            }
+            if (important.size < closures[i].length) {
+                closures[i] = important.toSortedSet();
+            }
+        }
+        start = closures[ids.get(nfa.startState)];
+    }
+
+    /*
+     * Returns the interval that a character falls into.
+     */
+    int intervalOf(char c) {
+        if (c < lowIntervals.length) {
+            return lowIntervals[c];
+        }
+        int i = Arrays.binarySearch(bounds, c);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /*
+     * Returns the sorted set of states reached from a sorted set of states on any character of an interval.
+     */
+    int[] successor(int[] set, int interval, IntList scratch) {
+        scratch.clear();
+        for (int state : set) {
+            for (int t = 0; t < targets[state].length; t++) {
+                if (firsts[state][t] <= interval && interval <= lasts[state][t]) {
+                    scratch.addAll(closures[targets[state][t]]);
+                }
+            }
+        }
+        return scratch.toSortedSet();
+    }
+
+    /*
+     * Returns the sorted IDs of the patterns accepted by a set of states.
+     */
+    int[] patterns(int[] set, IntList scratch) {
+        scratch.clear();
+        for (int state : set) {
+            if (accepts[state] != Dfa.NONE) {
+                scratch.add(accepts[state]);
+            }
+        }
+        return scratch.size > 0 ? scratch.toSortedSet() : Dfa.NO_PATTERNS;
+    }
+
+    /*
+     * Computes the epsilon closure of every NFA state as a sorted array of state numbers.
+     */
+    private static int[][] closures(List<State> states, Map<State, Integer> ids) {
+        int[][] closures = new int[states.size()][];
+        IntList closure = new IntList();
+        Deque<State> stack = new ArrayDeque<>();
+        Set<State> seen = new HashSet<>();
+        for (int i = 0; i < states.size(); i++) {
+            State state = states.get(i);
+            if (state.epsilonTransitions.isEmpty()) {
+                closures[i] = new int[]{i};
+                continue;
+            }
+            closure.clear();
+            seen.clear();
+            seen.add(state);
+            stack.push(state);
+            while (!stack.isEmpty()) {
+                State s = stack.pop();
+                closure.add(ids.get(s));
+                for (State target : s.epsilonTransitions) {
+                    if (seen.add(target)) {
+                        stack.push(target);
+                    }
+                }
+            }
+            closures[i] = closure.toSortedSet();
+        }
+        return closures;
+    }
+
+}
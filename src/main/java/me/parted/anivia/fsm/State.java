@@ -8,7 +8,8 @@ import java.util.Set;
 
 public class State {
 
-    public final Multimap<Character, State> transitions = ArrayListMultimap.create();
+    public final Multimap<CharRange, State> transitions = ArrayListMultimap.create();
     public final Set<State> epsilonTransitions = new HashSet<>();
+    public int pattern;     // the ID of the pattern accepted here, if this is an accept state
 
 }
\ No newline at end of file
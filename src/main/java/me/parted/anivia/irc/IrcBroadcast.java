@@ -0,0 +1,121 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code IrcBroadcast} class encodes a message sent to many recipients, such as the members of a channel, once per
+ * capability profile rather than once per recipient.
+ * <p>
+ * The tags of the message decide which capabilities are relevant to it, so recipients whose capability masks only
+ * differ in irrelevant capabilities share the same {@link me.parted.anivia.irc.IrcFrame}. Fan-out therefore costs one
+ * encoding per distinct profile and one {@link me.parted.anivia.irc.IrcFrame#retain()} per recipient.
+ * <p>
+ * The broadcast holds a reference to each frame it has encoded until it is closed.
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcCapability
+ * @see me.parted.anivia.irc.IrcFrame
+ * @since 1.0
+ */
+public class IrcBroadcast implements AutoCloseable {
+
+    private final IrcMessage message;
+    private final int[] required;
+    private final int relevant;
+
+    private int[] profiles = new int[2];
+    private IrcFrame[] frames = new IrcFrame[2];
+    private int size;
+
+    /**
+     * Constructs a new {@code IrcBroadcast}.
+     *
+     * @param message The {@link me.parted.anivia.irc.IrcMessage} to be sent.
+     */
+    public IrcBroadcast(@NotNull IrcMessage message) {
+        this.message = message;
+        IrcTags ircTags = message.getTags();
+        this.required = new int[ircTags.size()];
+        int relevant = 0;
+        for (int i = 0; i < required.length; i++) {
+            required[i] = IrcCapability.required(ircTags.getKey(i));
+            relevant |= required[i];
+        }
+        this.relevant = relevant;
+    }
+
+    /**
+     * Returns the frame to be sent to a recipient, with a reference added on behalf of the recipient.
+     *
+     * @param capabilities The capability mask of the recipient.
+     * @return The encoded message guaranteed not to be null, which the recipient must release once it is written.
+     */
+    @NotNull
+    public IrcFrame frameFor(int capabilities) {
+        if (profiles == null) {
+            throw new IllegalStateException("Cannot use an IrcBroadcast that has been closed.");
+        }
+        int profile = capabilities & relevant;
+        if ((profile & IrcCapability.MESSAGE_TAGS.bit()) != 0) {
+            profile = IrcCapability.MESSAGE_TAGS.bit(); // every tag is visible
+        }
+        for (int i = 0; i < size; i++) {
+            if (profiles[i] == profile) {
+                return frames[i].retain();
+            }
+        }
+        if (size == profiles.length) {
+            profiles = Arrays.copyOf(profiles, size * 2);
+            frames = Arrays.copyOf(frames, size * 2);
+        }
+        IrcFrame frame = IrcFrame.encode(messageFor(profile));
+        profiles[size] = profile;
+        frames[size] = frame;
+        size++;
+        return frame.retain();
+    }
+
+    /**
+     * Returns the number of distinct frames encoded so far.
+     *
+     * @return The number of capability profiles seen by this broadcast.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Releases the references held by this broadcast. Frames handed to recipients remain valid until they release them.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < size; i++) {
+            frames[i].release();
+            frames[i] = null;
+        }
+        profiles = null;
+        frames = null;
+        size = 0;
+    }
+
+    private IrcMessage messageFor(int profile) {
+        List<IrcTag> ircTags = message.getTags();
+        List<IrcTag> visible = new ArrayList<>(ircTags.size());
+        for (int i = 0; i < required.length; i++) {
+            if ((required[i] & profile) != 0) {
+                visible.add(ircTags.get(i));
+            }
+        }
+        if (visible.size() == ircTags.size()) {
+            return message;
+        }
+        return new IrcMessage(visible, message.getPrefix(), message.getCommand(), message.getParams());
+    }
+
+}
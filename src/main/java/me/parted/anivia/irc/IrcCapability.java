@@ -0,0 +1,85 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * The {@code IrcCapability} enum names the IRCv3 client capabilities that change how a message is encoded for a
+ * recipient. A set of capabilities is represented as an {@code int} mask of {@link #bit()}s so that recipients can be
+ * grouped into capability profiles cheaply.
+ * <p>
+ * A recipient with {@link #MESSAGE_TAGS} receives every tag. Any other recipient only receives the tags unlocked by one
+ * of its capabilities, such as the {@code time} tag for {@link #SERVER_TIME}.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcBroadcast
+ * @since 1.0
+ */
+public enum IrcCapability {
+
+    MESSAGE_TAGS("message-tags", null),
+    SERVER_TIME("server-time", "time"),
+    ACCOUNT_TAG("account-tag", "account"),
+    BATCH("batch", "batch"),
+    LABELED_RESPONSE("labeled-response", "label");
+
+    private final String name;
+    private final String tagKey;
+
+    IrcCapability(@NotNull String name, @Nullable String tagKey) {
+        this.name = name;
+        this.tagKey = tagKey;
+    }
+
+    /**
+     * Returns the name of this capability as negotiated with {@code CAP}.
+     *
+     * @return The name of this capability guaranteed not to be null.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the bit representing this capability in a capability mask.
+     *
+     * @return A mask with only the bit of this capability set.
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the capability mask of a set of capabilities.
+     *
+     * @param capabilities The set of capabilities.
+     * @return The mask with the bit of each capability in the set.
+     */
+    public static int mask(@NotNull Set<IrcCapability> capabilities) {
+        int mask = 0;
+        for (IrcCapability capability : capabilities) {
+            mask |= capability.bit();
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the mask of the capabilities that allow a tag to be sent to a recipient.
+     *
+     * @param key The key of the tag.
+     * @return The mask of the capabilities of which a recipient needs at least one to receive the tag.
+     */
+    public static int required(@NotNull String key) {
+        int mask = MESSAGE_TAGS.bit();
+        for (IrcCapability capability : values()) {
+            if (key.equals(capability.tagKey)) {
+                mask |= capability.bit();
+            }
+        }
+        return mask;
+    }
+
+}
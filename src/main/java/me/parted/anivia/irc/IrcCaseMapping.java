@@ -0,0 +1,129 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code IrcCaseMapping} enum names the ways in which a server may fold the case of nicknames and channel names, as
+ * advertised by the {@code CASEMAPPING} token of {@code RPL_ISUPPORT}.
+ * <p>
+ * Under {@link #RFC1459} the characters {@code []\^} are the upper case forms of {@code {}|~}, for the Scandinavian
+ * origins described in RFC 1459 Section 2.2, which gets {@code ^} and {@code ~} the wrong way around; servers fold the
+ * byte values as done here. {@link #STRICT_RFC1459} leaves {@code ^} and {@code ~} alone and {@link #ASCII} only folds
+ * the letters. Every mapping leaves characters outside of US-ASCII as they are.
+ * <p>
+ * Folding, hashing and comparing work on any {@link java.lang.CharSequence} one character at a time through a lookup
+ * table, so none of them allocate.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+public enum IrcCaseMapping {
+
+    ASCII("ascii", 'Z'),
+    RFC1459("rfc1459", '^'),
+    STRICT_RFC1459("strict-rfc1459", ']');
+
+    private final String token;
+    private final char[] lower = new char[128];
+
+    IrcCaseMapping(@NotNull String token, char last) {
+        this.token = token;
+        for (char c = 0; c < lower.length; c++) {
+            lower[c] = c >= 'A' && c <= last ? (char) (c + ('a' - 'A')) : c;
+        }
+    }
+
+    /**
+     * Returns the value of the {@code CASEMAPPING} token for this mapping.
+     *
+     * @return The token guaranteed not to be null.
+     */
+    @NotNull
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the lower case form of a character under this mapping.
+     *
+     * @param c The character.
+     * @return The folded character, which is the character itself if it has no lower case form.
+     */
+    public char fold(char c) {
+        return c < 128 ? lower[c] : c;
+    }
+
+    /**
+     * Returns the lower case form of a string under this mapping.
+     *
+     * @param s The string.
+     * @return The folded string, which is the string itself if it has no upper case characters.
+     */
+    @NotNull
+    public String fold(@NotNull String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (fold(s.charAt(i)) != s.charAt(i)) {
+                char[] chars = s.toCharArray();
+                for (; i < chars.length; i++) {
+                    chars[i] = fold(chars[i]);
+                }
+                return new String(chars);
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Returns a hash code of a name that is equal for every pair of names that are {@link #equals(CharSequence,
+     * CharSequence) equal} under this mapping.
+     *
+     * @param s The name.
+     * @return The hash code of the folded name, as {@link java.lang.String#hashCode()} would compute it.
+     */
+    public int hash(@NotNull CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + fold(s.charAt(i));
+        }
+        return h;
+    }
+
+    /**
+     * Returns true if two names are the same under this mapping.
+     *
+     * @param a The first name.
+     * @param b The second name.
+     * @return True if the names have the same length and fold to the same characters.
+     */
+    public boolean equals(@NotNull CharSequence a, @NotNull CharSequence b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y && fold(x) != fold(y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the mapping named by a {@code CASEMAPPING} token.
+     *
+     * @param token The value of the token, which is matched ignoring case.
+     * @return The mapping, or null if the token names none of them.
+     */
+    @Nullable
+    public static IrcCaseMapping of(@NotNull String token) {
+        for (IrcCaseMapping mapping : values()) {
+            if (mapping.token.equalsIgnoreCase(token)) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,162 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IrcCommand} enum names the commands described in RFC 2812 Section 3 and the commands added by the IRCv3
+ * specifications, so that messages can be dispatched with a {@code switch} rather than by comparing strings.
+ * <p>
+ * Commands are matched case-insensitively. Three-digit numeric replies map to {@link #NUMERIC}, whose code is available
+ * separately, and any other command maps to {@link #UNKNOWN}, in which case the command string must be consulted.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcMessage#getIrcCommand()
+ * @see me.parted.anivia.irc.IrcMessageView#getIrcCommand()
+ * @since 1.0
+ */
+public enum IrcCommand {
+
+    /* RFC 2812 Section 3 */
+    PASS, NICK, USER, OPER, MODE, SERVICE, QUIT, SQUIT,
+    JOIN, PART, TOPIC, NAMES, LIST, INVITE, KICK,
+    PRIVMSG, NOTICE,
+    MOTD, LUSERS, VERSION, STATS, LINKS, TIME, CONNECT, TRACE, ADMIN, INFO,
+    SERVLIST, SQUERY,
+    WHO, WHOIS, WHOWAS,
+    KILL, PING, PONG, ERROR,
+    AWAY, REHASH, DIE, RESTART, SUMMON, USERS, WALLOPS, USERHOST, ISON,
+
+    /* IRCv3 */
+    CAP, AUTHENTICATE, ACCOUNT, CHGHOST, SETNAME, TAGMSG, BATCH, MONITOR, WEBIRC, FAIL, WARN, NOTE,
+
+    /**
+     * A three-digit numeric reply, whose code is reported alongside this constant.
+     */
+    NUMERIC,
+
+    /**
+     * A command that is not named by this enum.
+     */
+    UNKNOWN;
+
+    /* Collision-free hash table over the named commands, built once at class initialization */
+    private static final int TABLE_BITS = 8;
+    private static final IrcCommand[] TABLE = new IrcCommand[1 << TABLE_BITS];
+    private static final int MULTIPLIER;
+
+    static {
+        int multiplier = 31;
+        search:
+        while (true) {
+            Arrays.fill(TABLE, null);
+            for (IrcCommand command : values()) {
+                if (command == NUMERIC || command == UNKNOWN) {
+                    continue;
+                }
+                int h = 0;
+                for (int i = 0; i < command.name().length(); i++) {
+                    h = h * multiplier + command.name().charAt(i);
+                }
+                int slot = slot(h);
+                if (TABLE[slot] != null) {
+                    multiplier += 2;
+                    continue search;
+                }
+                TABLE[slot] = command;
+            }
+            break;
+        }
+        MULTIPLIER = multiplier;
+    }
+
+    /**
+     * Returns the {@code IrcCommand} for a command string.
+     *
+     * @param command The command, as it appears on the wire.
+     * @return The matching constant, {@link #NUMERIC} or {@link #UNKNOWN}, guaranteed not to be null.
+     */
+    @NotNull
+    public static IrcCommand of(@NotNull CharSequence command) {
+        if (numeric(command) >= 0) {
+            return NUMERIC;
+        }
+        int h = 0;
+        for (int i = 0; i < command.length(); i++) {
+            h = hash(h, command.charAt(i));
+        }
+        IrcCommand candidate = candidate(h, command.length());
+        if (candidate == null) {
+            return UNKNOWN;
+        }
+        for (int i = 0; i < command.length(); i++) {
+            if (!candidate.matches(i, command.charAt(i))) {
+                return UNKNOWN;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the code of a three-digit numeric reply.
+     *
+     * @param command The command, as it appears on the wire.
+     * @return The code of the numeric, or -1 if the command is not a numeric.
+     */
+    public static int numeric(@NotNull CharSequence command) {
+        if (command.length() != 3) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = command.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return code;
+    }
+
+    /**
+     * Folds the next character of a command into its hash. Letters are folded to upper case.
+     */
+    static int hash(int h, int c) {
+        if (c >= 'a' && c <= 'z') {
+            c -= 'a' - 'A';
+        }
+        return h * MULTIPLIER + c;
+    }
+
+    /**
+     * Returns the only named command that could have the given hash and length, which must still be verified with
+     * {@link #matches(int, int)}.
+     */
+    @Nullable
+    static IrcCommand candidate(int h, int length) {
+        IrcCommand candidate = TABLE[slot(h)];
+        if (candidate == null || candidate.name().length() != length) {
+            return null;
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns true if a character of a command matches the character of this constant's name at the same index,
+     * ignoring case.
+     */
+    boolean matches(int index, int c) {
+        if (c >= 'a' && c <= 'z') {
+            c -= 'a' - 'A';
+        }
+        return name().charAt(index) == c;
+    }
+
+    private static int slot(int h) {
+        h ^= h >>> 16;
+        return (h * 0x9E3779B9) >>> (32 - TABLE_BITS);
+    }
+
+}
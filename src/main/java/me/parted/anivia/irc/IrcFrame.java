@@ -0,0 +1,123 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The {@code IrcFrame} class holds an encoded IRC message that is shared, read-only, between the outbound queues of
+ * every recipient it is sent to.
+ * <p>
+ * A frame is reference-counted. It is created holding one reference, each queue that holds on to the frame must
+ * {@link #retain()} it and {@link #release()} it once it has been written, and the bytes are handed to the recycler, if
+ * any, when the last reference is released.
+ * <p>
+ * <b>Note:</b> Reference counting is thread-safe, so a frame may be released by the thread draining a queue.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcBroadcast
+ * @since 1.0
+ */
+public class IrcFrame {
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer bytes;
+    private final Consumer<ByteBuffer> recycler;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * Constructs a new {@code IrcFrame} holding one reference.
+     *
+     * @param bytes    The encoded message, between the position and the limit of the buffer.
+     * @param recycler The callback to which the buffer is returned when the last reference is released, which may be
+     *                 null.
+     */
+    public IrcFrame(@NotNull ByteBuffer bytes, @Nullable Consumer<ByteBuffer> recycler) {
+        this.buffer = bytes;
+        this.bytes = bytes.slice().asReadOnlyBuffer();
+        this.recycler = recycler;
+    }
+
+    /**
+     * Encodes a message into a new {@code IrcFrame} holding one reference.
+     *
+     * @param message The {@link me.parted.anivia.irc.IrcMessage} to be encoded.
+     * @return The encoded message guaranteed not to be null.
+     */
+    @NotNull
+    public static IrcFrame encode(@NotNull IrcMessage message) {
+        ByteBuffer bytes = ByteBuffer.allocate(IrcMessageEncoder.encodedLength(message));
+        IrcMessageEncoder.encode(message, bytes);
+        bytes.flip();
+        return new IrcFrame(bytes, null);
+    }
+
+    /**
+     * Returns the length of the encoded message.
+     *
+     * @return The length of the encoded message in bytes, including the CRLF.
+     */
+    public int length() {
+        return bytes.capacity();
+    }
+
+    /**
+     * Returns a read-only buffer over the encoded message with its own position and limit, for a single recipient to
+     * write from. The frame must be retained for as long as the buffer is used.
+     *
+     * @return A read-only buffer guaranteed not to be null.
+     */
+    @NotNull
+    public ByteBuffer buffer() {
+        return bytes.duplicate();
+    }
+
+    /**
+     * Adds a reference to this frame.
+     *
+     * @return This frame.
+     */
+    @NotNull
+    public IrcFrame retain() {
+        for (int count = references.get(); ; count = references.get()) {
+            if (count <= 0) {
+                throw new IllegalStateException("Cannot retain an IrcFrame that has already been released.");
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Removes a reference from this frame.
+     *
+     * @return True if this was the last reference, in which case the frame must no longer be used.
+     */
+    public boolean release() {
+        int count = references.decrementAndGet();
+        if (count < 0) {
+            throw new IllegalStateException("Cannot release an IrcFrame that has already been released.");
+        }
+        if (count == 0) {
+            if (recycler != null) {
+                recycler.accept(buffer);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of references to this frame.
+     *
+     * @return The number of references, which is zero once the frame has been released.
+     */
+    public int references() {
+        return Math.max(references.get(), 0);
+    }
+
+}
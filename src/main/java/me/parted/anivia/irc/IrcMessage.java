@@ -2,7 +2,6 @@ package me.parted.anivia.irc;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -22,9 +21,10 @@ import java.util.Objects;
  */
 public class IrcMessage {
 
-    private final List<IrcTag> ircTags;
+    private final IrcTags ircTags;
     private final IrcPrefix ircPrefix;
     private final String command;
+    private final IrcCommand ircCommand;
     private final String params;
 
     /**
@@ -39,19 +39,21 @@ public class IrcMessage {
         if (command.isEmpty()) {
             throw new IllegalArgumentException("Cannot construct an IrcMessage from an empty command.");
         }
-        this.ircTags = ImmutableList.copyOf(ircTags);
+        this.ircTags = IrcTags.copyOf(ircTags);
         this.ircPrefix = ircPrefix;
         this.command = command;
+        this.ircCommand = IrcCommand.of(command);
         this.params = Strings.emptyToNull(params);
     }
 
     /**
-     * Returns a list of IRC tags that this message contains.
+     * Returns a list of IRC tags that this message contains, in which well-known tags can be looked up by their
+     * {@link me.parted.anivia.irc.IrcTagKey}.
      *
-     * @return A list of IRC tags guaranteed not to be null.
+     * @return An immutable list of IRC tags guaranteed not to be null.
      */
     @NotNull
-    public List<IrcTag> getTags() {
+    public IrcTags getTags() {
         return this.ircTags;
     }
 
@@ -75,6 +77,26 @@ public class IrcMessage {
         return this.command;
     }
 
+    /**
+     * Returns the {@code IrcCommand} associated with this {@code IrcMessage}, suitable for dispatching with a
+     * {@code switch}.
+     *
+     * @return The {@code IrcCommand} associated with this {@code IrcMessage} guaranteed not to be null.
+     */
+    @NotNull
+    public IrcCommand getIrcCommand() {
+        return this.ircCommand;
+    }
+
+    /**
+     * Returns the code of this {@code IrcMessage} if it is a numeric reply.
+     *
+     * @return The code of the numeric, or -1 if the command is not {@link me.parted.anivia.irc.IrcCommand#NUMERIC}.
+     */
+    public int getNumeric() {
+        return this.ircCommand == IrcCommand.NUMERIC ? IrcCommand.numeric(command) : -1;
+    }
+
     /**
      * Returns the params associated with this {@code IrcMessage}.
      *
@@ -0,0 +1,251 @@
+package me.parted.anivia.irc;
+
+import com.google.common.base.Strings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@code IrcMessageEncoder} encodes an {@link me.parted.anivia.irc.IrcMessage} containing the IRC protocol message
+ * as described in RFC 2812 Section 2.3 and in the IRCv3.2 specification as UTF-8 bytes straight into a
+ * {@code ByteBuffer}, which may be direct, without building an intermediate {@code String}.
+ * <p>
+ * The output is byte-for-byte the UTF-8 encoding of what {@link me.parted.anivia.irc.IrcMessageWriter} produces.
+ * <p>
+ * <b>Note:</b> This class does not provide any validation guarantees.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcMessage
+ * @see me.parted.anivia.irc.IrcMessageWriter
+ * @since 1.0
+ */
+public class IrcMessageEncoder {
+
+    /**
+     * Encodes an {@link me.parted.anivia.irc.IrcMessage} into a buffer, starting at its position. If the buffer does
+     * not have room for the whole message, nothing is written and the position is left untouched, so that the caller
+     * may flush the buffer and retry.
+     *
+     * @param message The {@link me.parted.anivia.irc.IrcMessage} to be encoded.
+     * @param out     The buffer to write the encoded message to.
+     * @return True if the message was written, or false if the buffer overflowed.
+     */
+    public static boolean encode(@NotNull IrcMessage message, @NotNull ByteBuffer out) {
+        if (encodedLength(message) > out.remaining()) {
+            return false;
+        }
+
+        IrcTags ircTags = message.getTags();
+        if (!ircTags.isEmpty()) {
+            out.put((byte) '@');
+            for (int i = 0; i < ircTags.size(); i++) {
+                if (i > 0) {
+                    out.put((byte) ';');
+                }
+                put(out, ircTags.getKey(i));
+                if (ircTags.getValue(i) != null) {
+                    out.put((byte) '=');
+                    putEscaped(out, ircTags.getValue(i));
+                }
+            }
+            out.put((byte) ' ');
+        }
+
+        IrcPrefix ircPrefix = message.getPrefix();
+        if (ircPrefix != null) {
+            byte[] encoded = ircPrefix.encoded();
+            if (encoded != null) {
+                out.put(encoded);
+            } else {
+                out.put((byte) ':');
+                put(out, ircPrefix);
+            }
+            out.put((byte) ' ');
+        }
+
+        put(out, message.getCommand());
+        put(out, message.getParams());
+        out.put((byte) '\r');
+        out.put((byte) '\n');
+        return true;
+    }
+
+    /**
+     * Returns the number of bytes that {@link #encode(IrcMessage, ByteBuffer)} writes for a message.
+     *
+     * @param message The {@link me.parted.anivia.irc.IrcMessage} to be measured.
+     * @return The length of the encoded message in bytes, including the CRLF.
+     */
+    public static int encodedLength(@NotNull IrcMessage message) {
+        int length = 0;
+
+        IrcTags ircTags = message.getTags();
+        if (!ircTags.isEmpty()) {
+            length += 1 + ircTags.size(); // '@', the separators and the trailing space
+            for (int i = 0; i < ircTags.size(); i++) {
+                length += length(ircTags.getKey(i));
+                if (ircTags.getValue(i) != null) {
+                    length += 1 + escapedLength(ircTags.getValue(i));
+                }
+            }
+        }
+
+        IrcPrefix ircPrefix = message.getPrefix();
+        if (ircPrefix != null) {
+            byte[] encoded = ircPrefix.encoded();
+            length += encoded != null ? encoded.length + 1 : encodedLength(ircPrefix) + 2; // ':' and the trailing space
+        }
+
+        length += length(message.getCommand());
+        length += length(message.getParams());
+        return length + 2;
+    }
+
+    /**
+     * Returns the length of the parts of a prefix once encoded, without the ':'. As in
+     * {@link me.parted.anivia.irc.IrcPrefix#toString()}, the user is only written before a host.
+     */
+    static int encodedLength(@NotNull IrcPrefix ircPrefix) {
+        if (Strings.isNullOrEmpty(ircPrefix.getNickname())) {
+            return length(ircPrefix.getServerName());
+        }
+        int length = length(ircPrefix.getNickname());
+        if (!Strings.isNullOrEmpty(ircPrefix.getHost())) {
+            if (!Strings.isNullOrEmpty(ircPrefix.getUser())) {
+                length += 1 + length(ircPrefix.getUser());
+            }
+            length += 1 + length(ircPrefix.getHost());
+        }
+        return length;
+    }
+
+    /**
+     * Writes the parts of a prefix into a buffer, without the ':'. The caller must have checked that the buffer has
+     * room.
+     */
+    static void put(@NotNull ByteBuffer out, @NotNull IrcPrefix ircPrefix) {
+        if (Strings.isNullOrEmpty(ircPrefix.getNickname())) {
+            put(out, ircPrefix.getServerName());
+            return;
+        }
+        put(out, ircPrefix.getNickname());
+        if (!Strings.isNullOrEmpty(ircPrefix.getHost())) {
+            if (!Strings.isNullOrEmpty(ircPrefix.getUser())) {
+                out.put((byte) '!');
+                put(out, ircPrefix.getUser());
+            }
+            out.put((byte) '@');
+            put(out, ircPrefix.getHost());
+        }
+    }
+
+    /**
+     * Returns the length of a string once encoded as UTF-8.
+     */
+    static int length(@Nullable String str) {
+        if (str == null) {
+            return 0;
+        }
+        int length = str.length();
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < str.length()
+                        && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    length += 2; // four bytes for the pair of chars
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2; // a lone surrogate is written as a single '?'
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the length of a tag value once escaped and encoded as UTF-8.
+     */
+    static int escapedLength(@NotNull String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (IrcTag.escape(c) != 0) {
+                    length += 1;
+                }
+            } else if (c < 0x800) {
+                length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 2; // four bytes for the pair of chars
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes a tag value into a buffer as UTF-8, escaping it in the same pass. The caller must have checked that the
+     * buffer has room.
+     */
+    static void putEscaped(@NotNull ByteBuffer out, @NotNull String value) {
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char escape = IrcTag.escape(value.charAt(i));
+            if (escape != 0) {
+                put(out, value, from, i);
+                out.put((byte) '\\');
+                out.put((byte) escape);
+                from = i + 1;
+            }
+        }
+        put(out, value, from, value.length());
+    }
+
+    /**
+     * Writes a string into a buffer as UTF-8. Unpaired surrogates are replaced with '?', as {@code String.getBytes}
+     * does. The caller must have checked that the buffer has room.
+     */
+    static void put(@NotNull ByteBuffer out, @Nullable String str) {
+        if (str != null) {
+            put(out, str, 0, str.length());
+        }
+    }
+
+    /**
+     * Writes the chars of a string between two indices into a buffer as UTF-8, as {@link #put(ByteBuffer, String)}
+     * does.
+     */
+    private static void put(@NotNull ByteBuffer out, @NotNull String str, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < to
+                        && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                    out.put((byte) (0xF0 | (codePoint >> 18)));
+                    out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    out.put((byte) '?');
+                }
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+}
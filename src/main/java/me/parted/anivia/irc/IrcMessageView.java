@@ -0,0 +1,617 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code IrcMessageView} class is a flyweight over the raw bytes of a decoded IRC protocol message as described in
+ * RFC 2812 Section 2.3 and in the IRCv3.2 specification.
+ * <p>
+ * Rather than copying every field into a {@code String} while parsing, the {@link me.parted.anivia.irc.IrcMessageDecoder}
+ * records the offsets of each field in the backing buffer, and a {@code String} is only created the first time its
+ * getter is called. Well-known tag keys are resolved to their {@link me.parted.anivia.irc.IrcTagKey} as they are parsed
+ * and never decoded at all. A view handed out by the decoder is only valid until the consumer returns, as the backing
+ * buffer is then reused; views that must outlive the callback should be retained through an
+ * {@link me.parted.anivia.irc.IrcMessageViewPool} or converted with {@link #toIrcMessage()}.
+ * <p>
+ * Tag values are unescaped as described in the IRCv3 message tags specification, so that {@code \:}, {@code \s},
+ * {@code \\}, {@code \r} and {@code \n} read as the characters they stand for. By default each value is unescaped by
+ * the decoder as it passes over it, in the same pass that copies it into storage owned by the view. A decoder with lazy
+ * tags only records where each value is, and a value is unescaped the first time it is read, so tags that nobody reads
+ * cost nothing.
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcMessage
+ * @see me.parted.anivia.irc.IrcMessageDecoder
+ * @since 1.0
+ */
+public class IrcMessageView {
+
+    /* Field identifiers, each owning a start and end slot in the offset table */
+    static final int HOSTNAME = 0; // scratch for the hostname rule, which also matches within a client host
+    static final int NICKNAME = 1;
+    static final int USER = 2;
+    static final int HOST = 3;
+    static final int COMMAND = 4;
+    static final int PARAMS = 5;
+    static final int SERVER_NAME = 6;
+    private static final int FIELDS = 7;
+
+    /* Offset of an absent field; carried-over bytes may legitimately sit at negative indices */
+    private static final int NONE = Integer.MIN_VALUE;
+
+    /* Backing bytes: the current chunk, preceded by the bytes carried over from the last chunk, if any */
+    private ByteBuffer data;
+    private int base;
+    private byte[] carry;
+    private int carryLength;
+
+    /* Storage owned by a retained view */
+    private byte[] owned = new byte[0];
+    private ByteBuffer ownedData = ByteBuffer.wrap(owned);
+
+    private final int[] offsets = new int[FIELDS * 2];
+    private final String[] strings = new String[FIELDS];
+    private IrcCommand ircCommand;
+    private int numeric;
+    private boolean canonical; // the command on the wire is spelled exactly as its IrcCommand
+    private int[] tagOffsets = new int[4 * 4]; // key start, key end, value start, value end
+    private String[] tagStrings = new String[2 * 4]; // key, value
+    private int[] tagIds = new int[4]; // the ordinal of the IrcTagKey of each key, or -1
+    private boolean[] tagUnescaped = new boolean[4]; // the value is already unescaped into the unescaped array
+    private int tagCount;
+    private boolean lazyTags;
+
+    /* Tag values unescaped by the decoder, which their offsets point into rather than into the backing bytes */
+    private byte[] unescaped = new byte[64];
+    private int unescapedLength;
+
+    /**
+     * Constructs a new, empty {@code IrcMessageView}. Views are normally obtained from an
+     * {@link me.parted.anivia.irc.IrcMessageDecoder} or an {@link me.parted.anivia.irc.IrcMessageViewPool}.
+     */
+    public IrcMessageView() {
+        clear();
+    }
+
+    /**
+     * Returns the number of IRC tags that this message contains.
+     *
+     * @return The number of tags.
+     */
+    public int getTagCount() {
+        return this.tagCount;
+    }
+
+    /**
+     * Returns the key of an IRC tag that this message contains.
+     *
+     * @param index The index of the tag, in the order in which it appeared.
+     * @return The key of the tag guaranteed not to be null.
+     */
+    @NotNull
+    public String getTagKey(int index) {
+        checkTag(index);
+        return tagString(2 * index);
+    }
+
+    /**
+     * Returns the value of an IRC tag that this message contains.
+     *
+     * @param index The index of the tag, in the order in which it appeared.
+     * @return The value of the tag which may be null.
+     */
+    @Nullable
+    public String getTagValue(int index) {
+        checkTag(index);
+        return tagString(2 * index + 1);
+    }
+
+    /**
+     * Returns the value of the IRC tag with a well-known key, without decoding any other tag.
+     *
+     * @param key The key.
+     * @return The value of the last tag with the key, which may be null if it has no value or there is no such tag.
+     */
+    @Nullable
+    public String getTagValue(@NotNull IrcTagKey key) {
+        for (int i = tagCount - 1; i >= 0; i--) {
+            if (tagIds[i] == key.ordinal()) {
+                return tagString(2 * i + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an {@code IrcPrefix} object built from the prefix of this message. Unlike the other getters, this always
+     * creates a new object.
+     *
+     * @return An {@code IrcPrefix} which may be null.
+     */
+    @Nullable
+    public IrcPrefix getPrefix() {
+        String nickname = getNickname();
+        if (nickname != null) {
+            return new IrcPrefix(nickname, getUser(), getHost());
+        }
+        String serverName = getServerName();
+        if (serverName != null) {
+            return new IrcPrefix(serverName);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the server name in the prefix of this message.
+     *
+     * @return A possibly null String containing the server name.
+     */
+    @Nullable
+    public String getServerName() {
+        return string(SERVER_NAME);
+    }
+
+    /**
+     * Returns the nickname in the prefix of this message.
+     *
+     * @return A possibly null String containing the nickname.
+     */
+    @Nullable
+    public String getNickname() {
+        return string(NICKNAME);
+    }
+
+    /**
+     * Returns the user in the prefix of this message.
+     *
+     * @return A possibly null String containing the user.
+     */
+    @Nullable
+    public String getUser() {
+        return string(USER);
+    }
+
+    /**
+     * Returns the host in the prefix of this message.
+     *
+     * @return A possibly null String containing the host.
+     */
+    @Nullable
+    public String getHost() {
+        return string(HOST);
+    }
+
+    /**
+     * Returns the command of this message. A command spelled exactly as its {@code IrcCommand} is returned without
+     * creating a new {@code String}.
+     *
+     * @return The command of this message guaranteed not to be null.
+     */
+    @NotNull
+    public String getCommand() {
+        if (canonical && strings[COMMAND] == null) {
+            strings[COMMAND] = ircCommand.name();
+        }
+        String command = string(COMMAND);
+        if (command == null) {
+            throw new IllegalStateException("The view does not hold a message.");
+        }
+        return command;
+    }
+
+    /**
+     * Returns the {@code IrcCommand} of this message, which was resolved while it was parsed.
+     *
+     * @return The {@code IrcCommand} of this message guaranteed not to be null.
+     */
+    @NotNull
+    public IrcCommand getIrcCommand() {
+        if (ircCommand == null) {
+            throw new IllegalStateException("The view does not hold a message.");
+        }
+        return ircCommand;
+    }
+
+    /**
+     * Returns the code of this message if it is a numeric reply.
+     *
+     * @return The code of the numeric, or -1 if the command is not {@link me.parted.anivia.irc.IrcCommand#NUMERIC}.
+     */
+    public int getNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Returns the params of this message.
+     *
+     * @return The params of this message which may be null.
+     */
+    @Nullable
+    public String getParams() {
+        return string(PARAMS);
+    }
+
+    /**
+     * Creates an {@code IrcMessage} holding a copy of the data in this view, which remains valid after the view is
+     * recycled.
+     *
+     * @return An {@code IrcMessage} equal to the message in this view.
+     */
+    @NotNull
+    public IrcMessage toIrcMessage() {
+        IrcTags ircTags = IrcTags.of();
+        if (tagCount > 0) {
+            String[] keys = new String[tagCount];
+            String[] values = new String[tagCount];
+            for (int i = 0; i < tagCount; i++) {
+                keys[i] = getTagKey(i);
+                values[i] = getTagValue(i);
+            }
+            ircTags = new IrcTags(keys, values, Arrays.copyOf(tagIds, tagCount));
+        }
+        return new IrcMessage(ircTags, getPrefix(), getCommand(), getParams());
+    }
+
+    @Override
+    public String toString() {
+        return toIrcMessage().toString();
+    }
+
+    /**
+     * Points this view at the bytes of a new chunk. Bytes before {@code base} are read from {@code carry}.
+     */
+    void wrap(ByteBuffer data, int base, byte[] carry, int carryLength) {
+        this.data = data;
+        this.base = base;
+        this.carry = carry;
+        this.carryLength = carryLength;
+    }
+
+    void mark(int field, int start, int end) {
+        offsets[2 * field] = start;
+        offsets[2 * field + 1] = end;
+        strings[field] = null;
+    }
+
+    /**
+     * Records the command and resolves it to an {@code IrcCommand} from the bytes, without creating a {@code String}.
+     */
+    void command(int start, int end) {
+        mark(COMMAND, start, end);
+        canonical = false;
+        numeric = -1;
+        int length = end - start;
+        byte first = byteAt(start);
+        if (first >= '0' && first <= '9') {
+            numeric = 0;
+            for (int i = start; i < end; i++) {
+                numeric = numeric * 10 + (byteAt(i) - '0');
+            }
+            ircCommand = IrcCommand.NUMERIC;
+            return;
+        }
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = IrcCommand.hash(h, byteAt(i));
+        }
+        ircCommand = IrcCommand.UNKNOWN;
+        IrcCommand candidate = IrcCommand.candidate(h, length);
+        if (candidate == null) {
+            return;
+        }
+        boolean exact = true;
+        for (int i = 0; i < length; i++) {
+            byte b = byteAt(start + i);
+            if (!candidate.matches(i, b)) {
+                return;
+            }
+            exact &= candidate.name().charAt(i) == b;
+        }
+        ircCommand = candidate;
+        canonical = exact;
+    }
+
+    void prefix() {
+        if (offsets[2 * NICKNAME] == NONE) {
+            offsets[2 * SERVER_NAME] = offsets[2 * HOSTNAME];
+            offsets[2 * SERVER_NAME + 1] = offsets[2 * HOSTNAME + 1];
+            strings[SERVER_NAME] = strings[HOSTNAME];
+        }
+    }
+
+    /**
+     * Records the key of a tag and resolves it to an {@code IrcTagKey} from the bytes, in which case the key is the
+     * constant's own {@code String} rather than one decoded from the bytes.
+     */
+    void tagKey(int start, int end) {
+        int i = 4 * tagCount;
+        if (i == tagOffsets.length) {
+            tagOffsets = Arrays.copyOf(tagOffsets, tagOffsets.length * 2);
+            tagStrings = Arrays.copyOf(tagStrings, tagStrings.length * 2);
+            tagIds = Arrays.copyOf(tagIds, tagIds.length * 2);
+            tagUnescaped = Arrays.copyOf(tagUnescaped, tagUnescaped.length * 2);
+            Arrays.fill(tagOffsets, i, tagOffsets.length, NONE);
+        }
+        tagOffsets[i] = start;
+        tagOffsets[i + 1] = end;
+        tagOffsets[i + 2] = NONE;
+        tagOffsets[i + 3] = NONE;
+        tagStrings[2 * tagCount] = null;
+        tagStrings[2 * tagCount + 1] = null;
+        tagIds[tagCount] = -1;
+        tagUnescaped[tagCount] = false;
+        search:
+        for (int id = 0; id < IrcTagKey.count(); id++) {
+            String key = IrcTagKey.of(id).getKey();
+            if (key.length() != end - start) {
+                continue;
+            }
+            for (int j = 0; j < key.length(); j++) {
+                if (byteAt(start + j) != key.charAt(j)) {
+                    continue search;
+                }
+            }
+            tagIds[tagCount] = id;
+            tagStrings[2 * tagCount] = key;
+            return;
+        }
+    }
+
+    /**
+     * Records the value of a tag. Unless tags are lazy, the value is unescaped as it is copied out of the backing bytes,
+     * which the chunk may then release without the value being decoded.
+     */
+    void tagValue(int start, int end) {
+        if (lazyTags) {
+            tagOffsets[4 * tagCount + 2] = start;
+            tagOffsets[4 * tagCount + 3] = end;
+            return;
+        }
+        reserve(end - start);
+        tagOffsets[4 * tagCount + 2] = unescapedLength;
+        unescapedLength = unescape(start, end, unescaped, unescapedLength);
+        tagOffsets[4 * tagCount + 3] = unescapedLength;
+        tagUnescaped[tagCount] = true;
+    }
+
+    /**
+     * Chooses whether tag values are unescaped as they are parsed or when they are first read.
+     */
+    void lazyTags(boolean lazyTags) {
+        this.lazyTags = lazyTags;
+    }
+
+    void tag() {
+        tagCount++;
+    }
+
+    /**
+     * Materializes every field recorded so far, including a tag whose key has been seen but which is not yet complete,
+     * so that the chunk backing them may be released.
+     */
+    void spill() {
+        for (int field = 0; field < FIELDS; field++) {
+            string(field);
+        }
+        int tags = tagCount;
+        if (4 * tags < tagOffsets.length && tagOffsets[4 * tags] != NONE) {
+            tags++;
+        }
+        for (int i = 0; i < 2 * tags; i++) {
+            if (i % 2 == 0 || !tagUnescaped[i / 2]) {
+                tagString(i);
+            }
+        }
+    }
+
+    /**
+     * Forgets the message held by this view.
+     */
+    void clear() {
+        Arrays.fill(offsets, NONE);
+        Arrays.fill(strings, null);
+        Arrays.fill(tagOffsets, NONE);
+        Arrays.fill(tagStrings, null);
+        Arrays.fill(tagUnescaped, false);
+        tagCount = 0;
+        unescapedLength = 0;
+        ircCommand = null;
+        numeric = -1;
+        canonical = false;
+        data = null;
+        carry = null;
+        carryLength = 0;
+        base = 0;
+    }
+
+    /**
+     * Copies the message held by this view into another view that owns its bytes, so that it outlives the chunk that
+     * backs this one. Fields that have already been materialized are shared rather than copied.
+     *
+     * @param target The view to copy into, which is cleared first.
+     */
+    void copyTo(IrcMessageView target) {
+        target.clear();
+        int length = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            if (strings[field] == null && offsets[2 * field] != NONE) {
+                length += offsets[2 * field + 1] - offsets[2 * field];
+            }
+        }
+        for (int i = 0; i < 2 * tagCount; i++) {
+            if (tagStrings[i] == null && tagOffsets[2 * i] != NONE && !unescaped(i)) {
+                length += tagOffsets[2 * i + 1] - tagOffsets[2 * i];
+            }
+        }
+        if (target.owned.length < length) {
+            target.owned = new byte[Math.max(length, 2 * target.owned.length)];
+            target.ownedData = ByteBuffer.wrap(target.owned);
+        }
+        if (target.tagOffsets.length < tagOffsets.length) {
+            target.tagOffsets = new int[tagOffsets.length];
+            target.tagStrings = new String[tagStrings.length];
+            target.tagIds = new int[tagIds.length];
+            target.tagUnescaped = new boolean[tagUnescaped.length];
+            Arrays.fill(target.tagOffsets, NONE);
+        }
+        System.arraycopy(tagIds, 0, target.tagIds, 0, tagCount);
+        System.arraycopy(tagUnescaped, 0, target.tagUnescaped, 0, tagCount);
+        target.reserve(unescapedLength);
+        System.arraycopy(unescaped, 0, target.unescaped, 0, unescapedLength);
+        target.unescapedLength = unescapedLength;
+
+        int at = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            target.strings[field] = strings[field];
+            if (strings[field] == null && offsets[2 * field] != NONE) {
+                target.offsets[2 * field] = at;
+                at = copy(offsets[2 * field], offsets[2 * field + 1], target.owned, at);
+                target.offsets[2 * field + 1] = at;
+            }
+        }
+        for (int i = 0; i < 2 * tagCount; i++) {
+            target.tagStrings[i] = tagStrings[i];
+            if (unescaped(i)) {
+                target.tagOffsets[2 * i] = tagOffsets[2 * i];
+                target.tagOffsets[2 * i + 1] = tagOffsets[2 * i + 1];
+            } else if (tagStrings[i] == null && tagOffsets[2 * i] != NONE) {
+                target.tagOffsets[2 * i] = at;
+                at = copy(tagOffsets[2 * i], tagOffsets[2 * i + 1], target.owned, at);
+                target.tagOffsets[2 * i + 1] = at;
+            }
+        }
+        target.tagCount = tagCount;
+        target.ircCommand = ircCommand;
+        target.numeric = numeric;
+        target.canonical = canonical;
+        target.wrap(target.ownedData, 0, null, 0);
+    }
+
+    private void checkTag(int index) {
+        if (index < 0 || index >= tagCount) {
+            throw new IndexOutOfBoundsException("Tag index " + index + " is out of bounds for " + tagCount + " tags.");
+        }
+    }
+
+    @Nullable
+    private String string(int field) {
+        String string = strings[field];
+        if (string == null && offsets[2 * field] != NONE && offsets[2 * field] < offsets[2 * field + 1]) {
+            string = decode(offsets[2 * field], offsets[2 * field + 1]);
+            strings[field] = string;
+        }
+        return string;
+    }
+
+    @Nullable
+    private String tagString(int i) {
+        String string = tagStrings[i];
+        int start = tagOffsets[2 * i];
+        int end = tagOffsets[2 * i + 1];
+        if (string == null && start != NONE && start < end) {
+            if (unescaped(i)) {
+                string = new String(unescaped, start, end - start, StandardCharsets.UTF_8);
+            } else if (i % 2 == 1) {
+                // A lazy value, unescaped into the free end of the array as it is copied, and then decoded
+                reserve(end - start);
+                int length = unescape(start, end, unescaped, unescapedLength) - unescapedLength;
+                if (length == 0) {
+                    tagOffsets[2 * i] = NONE; // nothing but a dropped backslash, which must not be read again
+                    tagOffsets[2 * i + 1] = NONE;
+                    return null;
+                }
+                string = new String(unescaped, unescapedLength, length, StandardCharsets.UTF_8);
+            } else {
+                string = decode(start, end);
+            }
+            tagStrings[i] = string;
+        }
+        return string;
+    }
+
+    /**
+     * Returns true if a slot of the tag arrays holds a value that was unescaped by the decoder.
+     */
+    private boolean unescaped(int i) {
+        return i % 2 == 1 && tagUnescaped[i / 2];
+    }
+
+    /**
+     * Makes room for a number of bytes past the end of the unescaped values.
+     */
+    private void reserve(int length) {
+        if (unescapedLength + length > unescaped.length) {
+            unescaped = Arrays.copyOf(unescaped, Math.max(unescapedLength + length, 2 * unescaped.length));
+        }
+    }
+
+    /**
+     * Copies a tag value out of the backing bytes in a single pass, replacing each escape sequence with the character it
+     * stands for. A backslash before any other character is dropped, as is one at the very end of the value.
+     *
+     * @return The index in the destination one past the last byte copied.
+     */
+    private int unescape(int start, int end, byte[] dest, int at) {
+        for (int i = start; i < end; i++) {
+            byte b = byteAt(i);
+            if (b == '\\') {
+                if (++i == end) {
+                    break;
+                }
+                b = byteAt(i);
+                switch (b) {
+                    case ':':
+                        b = ';';
+                        break;
+                    case 's':
+                        b = ' ';
+                        break;
+                    case 'r':
+                        b = '\r';
+                        break;
+                    case 'n':
+                        b = '\n';
+                        break;
+                    default:
+                        break; // a backslash stands for itself, and any other character is kept without it
+                }
+            }
+            dest[at++] = b;
+        }
+        return at;
+    }
+
+    private byte byteAt(int index) {
+        if (index < base) {
+            return carry[carryLength - (base - index)];
+        }
+        return data.get(index);
+    }
+
+    private int copy(int start, int end, byte[] dest, int at) {
+        for (int i = start; i < end; i++) {
+            dest[at++] = byteAt(i);
+        }
+        return at;
+    }
+
+    /**
+     * Decodes the UTF-8 bytes between two indices without disturbing the position or limit of the backing buffer.
+     */
+    private String decode(int start, int end) {
+        if (start >= base && data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        copy(start, end, bytes, 0);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
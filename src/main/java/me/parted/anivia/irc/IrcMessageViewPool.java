@@ -0,0 +1,66 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The {@code IrcMessageViewPool} class recycles {@link me.parted.anivia.irc.IrcMessageView}s that must outlive the
+ * decoder callback that produced them, such as messages queued for processing after the next read.
+ * <p>
+ * A retained view owns a private copy of the bytes of the fields that have not yet been materialized. Once the pool is
+ * warm, retaining and releasing views allocates nothing. A pool is intended to be owned by a single connection.
+ * <p>
+ * <b>Note:</b> This class is not thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcMessageView
+ * @since 1.0
+ */
+public class IrcMessageViewPool {
+
+    private final Deque<IrcMessageView> free = new ArrayDeque<>();
+    private final int capacity;
+
+    /**
+     * Constructs a new {@code IrcMessageViewPool}.
+     *
+     * @param capacity The maximum number of released views kept for reuse.
+     */
+    public IrcMessageViewPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cannot construct an IrcMessageViewPool with a negative capacity.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Copies a view into a pooled view that remains valid until it is released.
+     *
+     * @param view The view to retain, typically one handed out by an {@link me.parted.anivia.irc.IrcMessageDecoder}.
+     * @return A view holding the same message which is guaranteed not to be null.
+     */
+    @NotNull
+    public IrcMessageView retain(@NotNull IrcMessageView view) {
+        IrcMessageView copy = free.poll();
+        if (copy == null) {
+            copy = new IrcMessageView();
+        }
+        view.copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * Returns a view obtained from {@link #retain(IrcMessageView)} to this pool. The view must not be used afterwards.
+     *
+     * @param view The view to release.
+     */
+    public void release(@NotNull IrcMessageView view) {
+        view.clear();
+        if (free.size() < capacity) {
+            free.push(view);
+        }
+    }
+
+}
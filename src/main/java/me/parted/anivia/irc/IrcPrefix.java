@@ -4,12 +4,20 @@ import com.google.common.base.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * The {@code IrcPrefix} class represents an object version of an IRC message prefix as described in ABNF in RFC 2812
  * Section 2.3.1.
  * <p>
+ * A prefix that is sent many times, such as that of a connected user, can be {@link #encode() encoded} once, after which
+ * {@link me.parted.anivia.irc.IrcMessageEncoder} copies the encoded bytes into every message rather than encoding each
+ * of its parts again.
+ * <p>
+ * A user without a host is left out of the prefix as it is written, since RFC 2812 only allows a user before a host.
+ * <p>
  * <b>Note:</b> This class does not provide any validation guarantees.
  *
  * @author Justin Kaufman
@@ -22,6 +30,9 @@ public class IrcPrefix {
     private final String user;
     private final String host;
 
+    /* The encoded prefix, once it has been asked for */
+    private volatile byte[] encoded;
+
     /**
      * Constructs a new {@code IrcPrefix} representing a server-based origin.
      *
@@ -95,6 +106,39 @@ public class IrcPrefix {
         return this.host;
     }
 
+    /**
+     * Returns this prefix encoded as UTF-8, starting with the ':', as it appears in a message. The bytes are computed
+     * the first time this is called and kept from then on, and every message encoded with this prefix afterwards copies
+     * them as they are.
+     *
+     * @return A read-only buffer over the encoded prefix guaranteed not to be null.
+     */
+    @NotNull
+    public ByteBuffer encode() {
+        byte[] encoded = this.encoded;
+        if (encoded == null) {
+            encoded = new byte[1 + IrcMessageEncoder.encodedLength(this)];
+            ByteBuffer out = ByteBuffer.wrap(encoded);
+            out.put((byte) ':');
+            IrcMessageEncoder.put(out, this);
+            if (out.position() < encoded.length) {
+                encoded = Arrays.copyOf(encoded, out.position());
+            }
+            this.encoded = encoded;
+        }
+        return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the encoded prefix if {@link #encode()} has been called.
+     *
+     * @return The encoded prefix starting with the ':', or null if it has not been encoded.
+     */
+    @Nullable
+    byte[] encoded() {
+        return encoded;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(serverName, nickname, user, host);
@@ -124,10 +168,10 @@ public class IrcPrefix {
         if (Strings.isNullOrEmpty(nickname)) {
             return ":" + serverName;
         }
+        if (Strings.isNullOrEmpty(host)) {
+            return ":" + nickname;
+        }
         if (Strings.isNullOrEmpty(user)) {
-            if (Strings.isNullOrEmpty(host)) {
-                return ":" + nickname;
-            }
             return ":" + nickname + "@" + host;
         }
         return ":" + nickname + "!" + user + "@" + host;
@@ -9,6 +9,9 @@ import java.util.Objects;
 /**
  * The {@code IrcTag} class represents an object version of an IRC Message Tag described in the IRCv3.2 specification.
  * <p>
+ * The value is held unescaped. It is escaped when the tag is written out, as described in the IRCv3 message tags
+ * specification, so that it may hold semicolons, spaces, backslashes and line breaks.
+ * <p>
  * <b>Note:</b> This class does not provide any validation guarantees.
  *
  * @author Justin Kaufman
@@ -81,7 +84,41 @@ public class IrcTag {
         if (value == null) {
             return key;
         }
-        return key + "=" + value;
+        StringBuilder sb = new StringBuilder(key.length() + 1 + value.length());
+        sb.append(key).append('=');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char escape = escape(c);
+            if (escape != 0) {
+                sb.append('\\').append(escape);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the character that follows a backslash in the escape sequence for a character of a tag value.
+     *
+     * @param c The character.
+     * @return The character of the escape sequence, or 0 if the character is written as it is.
+     */
+    static char escape(char c) {
+        switch (c) {
+            case ';':
+                return ':';
+            case ' ':
+                return 's';
+            case '\\':
+                return '\\';
+            case '\r':
+                return 'r';
+            case '\n':
+                return 'n';
+            default:
+                return 0;
+        }
     }
 
 }
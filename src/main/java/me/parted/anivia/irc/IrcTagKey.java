@@ -0,0 +1,85 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code IrcTagKey} enum names the message tag keys of the IRCv3 specifications that servers and clients look up
+ * most often. The {@link me.parted.anivia.irc.IrcMessageDecoder} resolves these keys while parsing, without creating a
+ * {@code String} for them, and {@link me.parted.anivia.irc.IrcTags} finds the tag with such a key without a scan.
+ * <p>
+ * There are at most {@value #MAX_KEYS} constants, so that the position of each of them in a message fits in one byte
+ * of a {@code long}.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcTags
+ * @since 1.0
+ */
+public enum IrcTagKey {
+
+    TIME("time"),
+    MSGID("msgid"),
+    ACCOUNT("account"),
+    BATCH("batch"),
+    LABEL("label"),
+    BOT("bot");
+
+    /* The most constants this enum may have */
+    static final int MAX_KEYS = 8;
+
+    private static final IrcTagKey[] VALUES = values();
+
+    static {
+        if (VALUES.length > MAX_KEYS) {
+            throw new IllegalStateException("IrcTagKey has more than " + MAX_KEYS + " constants.");
+        }
+    }
+
+    private final String key;
+
+    IrcTagKey(@NotNull String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the key as it appears on the wire.
+     *
+     * @return The key guaranteed not to be null, which is the same instance for every tag parsed with this key.
+     */
+    @NotNull
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the {@code IrcTagKey} for a key.
+     *
+     * @param key The key, as it appears on the wire.
+     * @return The matching constant, or null if the key is not a well-known one.
+     */
+    @Nullable
+    public static IrcTagKey of(@NotNull String key) {
+        for (IrcTagKey candidate : VALUES) {
+            if (candidate.key.equals(key)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the constant with an ordinal, without copying the array of {@link #values()}.
+     */
+    @NotNull
+    static IrcTagKey of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Returns the number of constants, without copying the array of {@link #values()}.
+     */
+    static int count() {
+        return VALUES.length;
+    }
+
+}
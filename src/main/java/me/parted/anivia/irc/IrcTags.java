@@ -0,0 +1,224 @@
+package me.parted.anivia.irc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The {@code IrcTags} class is the immutable list of message tags of an {@link me.parted.anivia.irc.IrcMessage}, in the
+ * order in which they appear.
+ * <p>
+ * The keys and values are kept in two parallel arrays rather than as an {@link me.parted.anivia.irc.IrcTag} each, which
+ * is only created when the list is accessed as a {@code List}. Code that only needs the keys and values should use
+ * {@link #getKey(int)} and {@link #getValue(int)} instead. The position of the tag with each
+ * {@link me.parted.anivia.irc.IrcTagKey} is recorded in a single {@code long} when the list is built, so that looking
+ * up a well-known tag such as {@code time} or {@code msgid} takes constant time. If a key appears more than once, the
+ * last tag with the key is the one that is found.
+ * <p>
+ * The list is equal to any other {@code List} of the same {@code IrcTag}s, as the {@code List} contract requires.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.irc.IrcTagKey
+ * @since 1.0
+ */
+public final class IrcTags extends AbstractList<IrcTag> implements RandomAccess {
+
+    /* The most tags whose positions fit in a byte of the index; longer lists are scanned instead */
+    private static final int MAX_INDEXED = 0xFF - 1;
+
+    private static final IrcTags EMPTY = new IrcTags(new String[0], new String[0], new int[0]);
+
+    private final String[] keys;
+    private final String[] values;
+    private final long index; // one plus the position of the tag with each IrcTagKey, a byte per key
+
+    /**
+     * Constructs a new {@code IrcTags} from arrays that are not shared with anything else.
+     *
+     * @param keys   The keys, which are not empty.
+     * @param values The values, which are null if a tag has no value.
+     * @param ids    The ordinal of the {@code IrcTagKey} of each key, or -1 if it is not a well-known one.
+     */
+    IrcTags(@NotNull String[] keys, @NotNull String[] values, @NotNull int[] ids) {
+        this.keys = keys;
+        this.values = values;
+        long index = 0;
+        if (keys.length <= MAX_INDEXED) {
+            for (int i = 0; i < keys.length; i++) {
+                if (ids[i] >= 0) {
+                    int shift = 8 * ids[i];
+                    index = (index & ~(0xFFL << shift)) | ((long) (i + 1) << shift);
+                }
+            }
+        }
+        this.index = index;
+    }
+
+    /**
+     * Returns an empty list of tags.
+     *
+     * @return The empty list guaranteed not to be null.
+     */
+    @NotNull
+    public static IrcTags of() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a list of tags holding the same tags as another.
+     *
+     * @param ircTags The tags, in order.
+     * @return The list guaranteed not to be null, which is the given one if it is already an {@code IrcTags}.
+     */
+    @NotNull
+    public static IrcTags copyOf(@NotNull List<IrcTag> ircTags) {
+        if (ircTags instanceof IrcTags) {
+            return (IrcTags) ircTags;
+        }
+        if (ircTags.isEmpty()) {
+            return EMPTY;
+        }
+        int size = ircTags.size();
+        String[] keys = new String[size];
+        String[] values = new String[size];
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            IrcTag ircTag = ircTags.get(i);
+            IrcTagKey key = IrcTagKey.of(ircTag.getKey());
+            keys[i] = key != null ? key.getKey() : ircTag.getKey();
+            values[i] = ircTag.getValue();
+            ids[i] = key != null ? key.ordinal() : -1;
+        }
+        return new IrcTags(keys, values, ids);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a tag of this list as an {@link me.parted.anivia.irc.IrcTag}, which is created on every call.
+     *
+     * @param index The index of the tag.
+     * @return The tag guaranteed not to be null.
+     */
+    @Override
+    public IrcTag get(int index) {
+        return new IrcTag(keys[index], values[index]);
+    }
+
+    /**
+     * Returns the key of a tag of this list.
+     *
+     * @param index The index of the tag.
+     * @return The key guaranteed not to be null.
+     */
+    @NotNull
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the value of a tag of this list.
+     *
+     * @param index The index of the tag.
+     * @return The value which may be null.
+     */
+    @Nullable
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns true if this list has a tag with a well-known key.
+     *
+     * @param key The key.
+     * @return True if a tag has the key, whether or not it has a value.
+     */
+    public boolean containsKey(@NotNull IrcTagKey key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the value of the tag with a well-known key, in constant time.
+     *
+     * @param key The key.
+     * @return The value which may be null, if the tag has no value or there is no tag with the key.
+     */
+    @Nullable
+    public String getValue(@NotNull IrcTagKey key) {
+        int i = find(key);
+        return i >= 0 ? values[i] : null;
+    }
+
+    /**
+     * Returns the value of the tag with a key, which is looked up in constant time if it is a well-known one.
+     *
+     * @param key The key.
+     * @return The value which may be null, if the tag has no value or there is no tag with the key.
+     */
+    @Nullable
+    public String getValue(@NotNull String key) {
+        IrcTagKey known = IrcTagKey.of(key);
+        if (known != null) {
+            return getValue(known);
+        }
+        for (int i = keys.length - 1; i >= 0; i--) {
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the last tag with a well-known key, or -1 if there is none.
+     */
+    private int find(@NotNull IrcTagKey key) {
+        if (keys.length > MAX_INDEXED) {
+            for (int i = keys.length - 1; i >= 0; i--) {
+                if (keys[i].equals(key.getKey())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        return (int) (index >>> (8 * key.ordinal()) & 0xFF) - 1;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < keys.length; i++) {
+            // As IrcTag.hashCode() computes it for each tag
+            h = 31 * h + 31 * (31 + keys[i].hashCode()) + (values[i] == null ? 0 : values[i].hashCode());
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof IrcTags)) {
+            return super.equals(obj);
+        }
+        IrcTags other = (IrcTags) obj;
+        if (other.keys.length != keys.length) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].equals(other.keys[i])
+                    || (values[i] == null ? other.values[i] != null : !values[i].equals(other.values[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,219 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcFrame;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code BlockingConnection} class is a {@link me.parted.anivia.model.ChatConnection} with a thread of its own,
+ * which does plain blocking reads of its socket. Writes are done by a second thread, which empties the queue with
+ * gathering writes of up to {@value ChatConnection#MAX_GATHER} frames at a time. Senders therefore never block on a
+ * slow client, whose queue grows instead until it goes over the SendQ limit.
+ * <p>
+ * On virtual threads, where starting a thread costs little more than allocating it, a writer is started when a message
+ * is queued and nothing is writing yet, and exits once the queue is empty. Platform threads are far too costly for
+ * that, as a single message to a large channel would start a thread for every member, so without virtual threads each
+ * connection instead keeps one writer for as long as it is open, which parks while the queue is empty.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.ChatServer.Mode#VIRTUAL_THREADS
+ * @since 1.0
+ */
+final class BlockingConnection extends ChatConnection implements Runnable {
+
+    /* The size of the buffer that each connection reads into, which only needs to hold part of a message */
+    static final int READ_BUFFER_SIZE = 2048;
+
+    private final SocketChannel channel;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile boolean closing;
+    private Thread reader;
+    private volatile Thread writer; // the writer that parks, when writers are platform threads
+
+    /* Only used by the writer, and only allocated once something is sent */
+    private IrcFrame[] frames;
+    private ByteBuffer[] buffers;
+
+    BlockingConnection(@NotNull ChatServer server, @NotNull SocketChannel channel) throws IOException {
+        super(server, channel.getRemoteAddress());
+        this.channel = channel;
+    }
+
+    /**
+     * Starts the thread that reads this connection.
+     */
+    void start() {
+        reader = server.threadFactory().newThread(this);
+        reader.start();
+    }
+
+    /**
+     * Waits for the thread that reads this connection to exit, which it does soon after the connection is aborted
+     * unless a handler running on it blocks.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    void join() throws InterruptedException {
+        reader.join();
+    }
+
+    /**
+     * Reads and decodes messages until the socket is closed by either end.
+     */
+    @Override
+    public void run() {
+        boolean connected = false;
+        try {
+            if (!isClosed()) {
+                connected = true;
+                server.handler().onConnect(this);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            while (!isClosed()) {
+                buffer.clear();
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+                buffer.flip();
+                decode(buffer);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closed by the server, or by the client, or a failing handler
+        } finally {
+            abort();
+            server.closed(this, connected);
+        }
+    }
+
+    /**
+     * Closes this connection once the messages queued so far have been written.
+     */
+    @Override
+    public void close() {
+        closing = true;
+        flushLater();
+    }
+
+    /**
+     * Closes the socket at once, which wakes the thread of the connection if it is blocked reading and the writer if
+     * it is blocked writing.
+     */
+    @Override
+    void abort() {
+        if (!markClosed()) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The socket is gone either way
+        }
+        releaseOutbound();
+        Thread writer = this.writer;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Wakes the writer, or starts one if there is none. Only the sender that sets the writing flag does so, and the
+     * writer only clears it once it is about to check the queue for the last time before parking or exiting.
+     */
+    @Override
+    void flushLater() {
+        if (writing.compareAndSet(false, true)) {
+            if (server.virtualThreads()) {
+                server.threadFactory().newThread(this::write).start();
+            } else if (writer == null) {
+                writer = server.threadFactory().newThread(this::writeUntilClosed);
+                writer.start();
+            } else {
+                LockSupport.unpark(writer);
+            }
+        }
+    }
+
+    /**
+     * Writes whenever there is something queued until the connection is closed, and parks in between. A sender who
+     * queues a frame after the writer has cleared the writing flag sets it again and unparks the writer, whose next
+     * park then returns at once.
+     */
+    private void writeUntilClosed() {
+        while (!isClosed()) {
+            try {
+                flush();
+                if (closing) {
+                    abort();
+                    return;
+                }
+            } catch (IOException e) {
+                abort();
+                return;
+            }
+            writing.set(false);
+            if (outbound.isEmpty() && !closing && !isClosed()) {
+                LockSupport.park(this);
+            }
+            writing.set(true);
+        }
+    }
+
+    /**
+     * Writes until the queue is empty, and then closes the connection if that was asked for. The writer may have found
+     * the queue empty just before a frame was queued by a sender who then saw that the writer was still running, so the
+     * writer checks again after it stops.
+     */
+    private void write() {
+        do {
+            try {
+                flush();
+                if (closing) {
+                    abort();
+                }
+            } catch (IOException e) {
+                abort();
+            } finally {
+                writing.set(false);
+            }
+        } while ((closing || !outbound.isEmpty()) && !isClosed() && writing.compareAndSet(false, true));
+    }
+
+    private void flush() throws IOException {
+        if (frames == null) {
+            frames = new IrcFrame[MAX_GATHER];
+            buffers = new ByteBuffer[MAX_GATHER];
+        }
+        int count = 0;
+        try {
+            while (true) {
+                for (IrcFrame frame; count < MAX_GATHER && (frame = outbound.poll()) != null; count++) {
+                    frames[count] = frame;
+                    buffers[count] = frame.buffer();
+                }
+                if (count == 0) {
+                    return;
+                }
+                while (buffers[count - 1].hasRemaining()) {
+                    channel.write(buffers, 0, count);
+                }
+                for (; count > 0; count--) {
+                    dequeued(frames[count - 1]);
+                    frames[count - 1] = null;
+                    buffers[count - 1] = null;
+                }
+            }
+        } finally {
+            for (; count > 0; count--) {
+                dequeued(frames[count - 1]);
+                frames[count - 1] = null;
+                buffers[count - 1] = null;
+            }
+        }
+    }
+
+}
@@ -1,7 +1,167 @@
 package me.parted.anivia.model;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The {@code ChatChannel} class represents a channel and the users who are members of it.
+ * <p>
+ * Membership is read far more often than it changes, since every message sent to a channel is fanned out to all of its
+ * members while only JOIN, PART, KICK and QUIT change them. The members are therefore kept in an immutable array that
+ * readers iterate without locking, and each change builds a new array and publishes it in a single volatile write.
+ * Changes to a channel are serialized with each other by one of {@value #STRIPES} locks, chosen by the channel when it
+ * is constructed, so that changes to different channels rarely contend and no channel carries a lock of its own.
+ * <p>
+ * This class is thread-safe. A reader sees the members as of some single point in time, which may be just before a
+ * change that is in progress.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
 public class ChatChannel {
 
-    // TODO
+    /* The number of locks that changes to channels are spread across, which is a power of two */
+    static final int STRIPES = 256;
+
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private static final ChatUser[] NO_MEMBERS = new ChatUser[0];
+
+    private final String name;
+    private final Object lock;
+
+    /* Replaced, never modified, while holding the lock */
+    private volatile ChatUser[] members = NO_MEMBERS;
+
+    /**
+     * Constructs a new {@code ChatChannel} without members.
+     *
+     * @param name The name of the channel, including its prefix.
+     */
+    public ChatChannel(@NotNull String name) {
+        this.name = name;
+        this.lock = LOCKS[spread(System.identityHashCode(this)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Returns the name of this channel.
+     *
+     * @return The name of the channel guaranteed not to be null.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds a user to the members of this channel.
+     *
+     * @param user The user who joins.
+     * @return True if the user was not already a member.
+     */
+    public boolean join(@NotNull ChatUser user) {
+        synchronized (lock) {
+            ChatUser[] current = members;
+            if (indexOf(current, user) >= 0) {
+                return false;
+            }
+            ChatUser[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = user;
+            members = updated;
+            return true;
+        }
+    }
+
+    /**
+     * Removes a user from the members of this channel, as by PART, KICK or QUIT.
+     *
+     * @param user The user who leaves.
+     * @return True if the user was a member.
+     */
+    public boolean part(@NotNull ChatUser user) {
+        synchronized (lock) {
+            ChatUser[] current = members;
+            int index = indexOf(current, user);
+            if (index < 0) {
+                return false;
+            }
+            if (current.length == 1) {
+                members = NO_MEMBERS;
+                return true;
+            }
+            ChatUser[] updated = new ChatUser[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            members = updated;
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if a user is a member of this channel.
+     *
+     * @param user The user to look for.
+     * @return True if the user is a member.
+     */
+    public boolean contains(@NotNull ChatUser user) {
+        return indexOf(members, user) >= 0;
+    }
+
+    /**
+     * Returns the number of members of this channel.
+     *
+     * @return The number of members.
+     */
+    public int size() {
+        return members.length;
+    }
+
+    /**
+     * Returns the members of this channel as of now, in the order in which they joined. The list is not affected by
+     * later changes.
+     *
+     * @return An unmodifiable list of members guaranteed not to be null.
+     */
+    @NotNull
+    public List<ChatUser> getMembers() {
+        return Collections.unmodifiableList(Arrays.asList(members));
+    }
+
+    /**
+     * Hands every member of this channel as of now to a consumer, without locking or copying, for fan-out.
+     *
+     * @param action The consumer to which each member is handed.
+     */
+    public void forEachMember(@NotNull Consumer<? super ChatUser> action) {
+        for (ChatUser user : members) {
+            action.accept(user);
+        }
+    }
+
+    private static int indexOf(@NotNull ChatUser[] members, @NotNull ChatUser user) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] == user) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Spreads the higher bits of a hash code into the lower ones, which choose the stripe.
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
 
 }
@@ -0,0 +1,185 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcFrame;
+import me.parted.anivia.irc.IrcMessage;
+import me.parted.anivia.irc.IrcMessageDecoder;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ChatConnection} class represents one client socket of a {@link me.parted.anivia.model.ChatServer}.
+ * <p>
+ * Bytes read from the socket are fed to the connection's own {@link me.parted.anivia.irc.IrcMessageDecoder}, and each
+ * complete message is handed to the {@link me.parted.anivia.model.ChatServer.Handler} of the server on the thread that
+ * reads the connection. Messages may be sent from any thread: they are queued as
+ * {@link me.parted.anivia.irc.IrcFrame}s and written out in order, as many at a time as the socket takes in a single
+ * gathering write. How the socket is read and written depends on the {@link me.parted.anivia.model.ChatServer.Mode} of
+ * the server.
+ * <p>
+ * The outbound queue is bounded by the SendQ limit of the server, in bytes. A client that falls so far behind that a
+ * message would take its queue over the limit is disconnected rather than left to hold on to ever more memory.
+ * <p>
+ * <b>Note:</b> Only {@link #send(IrcFrame)}, {@link #send(IrcMessage)} and {@link #close()} are thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.ChatServer
+ * @since 1.0
+ */
+public abstract class ChatConnection {
+
+    /* The most frames handed to a single gathering write */
+    static final int MAX_GATHER = 64;
+
+    final ChatServer server;
+    final Queue<IrcFrame> outbound = new ConcurrentLinkedQueue<>();
+
+    private final SocketAddress remoteAddress;
+    private final IrcMessageDecoder decoder = new IrcMessageDecoder();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicBoolean sendQExceeded = new AtomicBoolean();
+
+    ChatConnection(@NotNull ChatServer server, SocketAddress remoteAddress) {
+        this.server = server;
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * Returns the address of the client.
+     *
+     * @return The remote address of the socket, which may be null if it was never connected.
+     */
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * Returns true once this connection has been closed, by either end.
+     *
+     * @return True if this connection is closed.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Returns the number of bytes queued to be written to the client, counting frames that are partly written.
+     *
+     * @return The depth of the outbound queue in bytes.
+     */
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * Returns true if this connection was closed because its outbound queue went over the SendQ limit.
+     *
+     * @return True if the SendQ limit was exceeded.
+     */
+    public boolean isSendQExceeded() {
+        return sendQExceeded.get();
+    }
+
+    /**
+     * Queues an encoded message to be written to the client. This takes over one reference to the frame, which is
+     * released once the frame has been written or the connection is closed. If the message would take the queue over
+     * the SendQ limit of the server, it is discarded and the connection is closed instead.
+     *
+     * @param frame The encoded message, such as one handed out by {@link me.parted.anivia.irc.IrcBroadcast}.
+     */
+    public void send(@NotNull IrcFrame frame) {
+        if (isClosed() || sendQExceeded.get()) {
+            frame.release();
+            return;
+        }
+        if (queuedBytes.addAndGet(frame.length()) > server.getSendQLimit()) {
+            queuedBytes.addAndGet(-frame.length());
+            frame.release();
+            exceedSendQ();
+            return;
+        }
+        outbound.add(frame);
+        if (isClosed()) {
+            releaseOutbound(); // lost a race with closing, which may already have drained the queue
+            return;
+        }
+        flushLater();
+    }
+
+    /**
+     * Encodes a message and queues it to be written to the client.
+     *
+     * @param message The {@link me.parted.anivia.irc.IrcMessage} to send.
+     */
+    public void send(@NotNull IrcMessage message) {
+        send(IrcFrame.encode(message));
+    }
+
+    /**
+     * Closes this connection once the frames queued so far have been written, or once as much of them as the socket
+     * takes has been, depending on the mode. Frames that have not been written by then are discarded.
+     */
+    public abstract void close();
+
+    /**
+     * Closes this connection at once, discarding every frame still queued. This may be called from any thread.
+     */
+    abstract void abort();
+
+    /**
+     * Arranges for the frames queued so far to be written.
+     */
+    abstract void flushLater();
+
+    /**
+     * Decodes bytes read from the socket, handing each complete message to the handler of the server.
+     *
+     * @param buffer The bytes read, between the position and the limit of the buffer.
+     */
+    void decode(@NotNull ByteBuffer buffer) {
+        decoder.decode(buffer, message -> {
+            if (!isClosed()) {
+                server.handler().onMessage(this, message);
+            }
+        });
+    }
+
+    /**
+     * Marks this connection closed.
+     *
+     * @return True if it was open until now, in which case the caller must close the socket and tell the server.
+     */
+    boolean markClosed() {
+        return closed.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases a frame taken off the outbound queue once it has been written or discarded.
+     *
+     * @param frame The frame.
+     */
+    void dequeued(@NotNull IrcFrame frame) {
+        queuedBytes.addAndGet(-frame.length());
+        frame.release();
+    }
+
+    void releaseOutbound() {
+        for (IrcFrame frame = outbound.poll(); frame != null; frame = outbound.poll()) {
+            dequeued(frame);
+        }
+    }
+
+    private void exceedSendQ() {
+        if (sendQExceeded.compareAndSet(false, true)) {
+            server.sendQExceeded();
+            abort();
+        }
+    }
+
+}
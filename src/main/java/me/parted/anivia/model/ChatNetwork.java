@@ -1,7 +1,161 @@
 package me.parted.anivia.model;
 
+import me.parted.anivia.irc.IrcCaseMapping;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code ChatNetwork} class keeps track of the users and channels of a network by name, so that the targets of
+ * commands such as NICK, PRIVMSG and WHOIS can be resolved.
+ * <p>
+ * Names are compared under the {@link me.parted.anivia.irc.IrcCaseMapping} of the network, which is advertised to
+ * clients as the {@code CASEMAPPING} token of {@code RPL_ISUPPORT}, and looked up without allocating or locking.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.NameIndex
+ * @since 1.0
+ */
 public class ChatNetwork {
 
-    // TODO
+    private final IrcCaseMapping caseMapping;
+    private final NameIndex<ChatUser> users;
+    private final NameIndex<ChatChannel> channels;
+
+    /**
+     * Constructs a new {@code ChatNetwork} without users or channels, which compares names under {@code rfc1459}.
+     */
+    public ChatNetwork() {
+        this(IrcCaseMapping.RFC1459);
+    }
+
+    /**
+     * Constructs a new {@code ChatNetwork} without users or channels.
+     *
+     * @param caseMapping The case mapping under which names are compared.
+     */
+    public ChatNetwork(@NotNull IrcCaseMapping caseMapping) {
+        this.caseMapping = caseMapping;
+        this.users = new NameIndex<>(caseMapping);
+        this.channels = new NameIndex<>(caseMapping);
+    }
+
+    /**
+     * Returns the case mapping under which this network compares names.
+     *
+     * @return The case mapping guaranteed not to be null.
+     */
+    @NotNull
+    public IrcCaseMapping getCaseMapping() {
+        return caseMapping;
+    }
+
+    /**
+     * Returns the user with a nickname.
+     *
+     * @param nickname The nickname, in any case.
+     * @return The user, or null if no user has the nickname.
+     */
+    @Nullable
+    public ChatUser getUser(@NotNull CharSequence nickname) {
+        return users.get(nickname);
+    }
+
+    /**
+     * Adds a user to this network under its nickname.
+     *
+     * @param user The user.
+     * @return True if the user was added, or false if the nickname is already in use.
+     */
+    public boolean addUser(@NotNull ChatUser user) {
+        return users.putIfAbsent(user.getNickname(), user) == null;
+    }
+
+    /**
+     * Changes the nickname of a user of this network, as by NICK.
+     *
+     * @param user The user.
+     * @param nickname The new nickname, which may differ from the current one only in case.
+     * @return True if the nickname was changed, or false if it is in use by another user or the user is not on this
+     * network.
+     */
+    public boolean changeNickname(@NotNull ChatUser user, @NotNull String nickname) {
+        synchronized (user) {
+            if (!users.rename(user.getNickname(), nickname, user)) {
+                return false;
+            }
+            user.setNickname(nickname);
+            return true;
+        }
+    }
+
+    /**
+     * Removes a user from this network, as by QUIT.
+     *
+     * @param user The user.
+     * @return True if the user was on this network.
+     */
+    public boolean removeUser(@NotNull ChatUser user) {
+        synchronized (user) {
+            return users.remove(user.getNickname(), user);
+        }
+    }
+
+    /**
+     * Returns the number of users of this network.
+     *
+     * @return The number of users.
+     */
+    public int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * Returns the channel with a name.
+     *
+     * @param name The name of the channel, including its prefix, in any case.
+     * @return The channel, or null if there is no channel with the name.
+     */
+    @Nullable
+    public ChatChannel getChannel(@NotNull CharSequence name) {
+        return channels.get(name);
+    }
+
+    /**
+     * Returns the channel with a name, which is created if there is none, as by the first JOIN.
+     *
+     * @param name The name of the channel, including its prefix.
+     * @return The channel guaranteed not to be null.
+     */
+    @NotNull
+    public ChatChannel getOrCreateChannel(@NotNull String name) {
+        ChatChannel channel = channels.get(name);
+        if (channel != null) {
+            return channel;
+        }
+        channel = new ChatChannel(name);
+        ChatChannel existing = channels.putIfAbsent(name, channel);
+        return existing != null ? existing : channel;
+    }
+
+    /**
+     * Removes a channel from this network, as once its last member has left.
+     *
+     * @param channel The channel.
+     * @return True if the channel was on this network.
+     */
+    public boolean removeChannel(@NotNull ChatChannel channel) {
+        return channels.remove(channel.getName(), channel);
+    }
+
+    /**
+     * Returns the number of channels of this network.
+     *
+     * @return The number of channels.
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
 
 }
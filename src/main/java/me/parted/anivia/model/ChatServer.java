@@ -1,7 +1,394 @@
 package me.parted.anivia.model;
 
-public class ChatServer {
+import me.parted.anivia.irc.IrcMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-    // TODO
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ChatServer} class accepts client sockets and runs them in one of two {@link Mode}s, chosen when the server
+ * is constructed, so that the two can be compared on the same workload.
+ * <p>
+ * A single acceptor thread accepts sockets. In {@link Mode#EVENT_LOOP} mode it deals them out in turn to a small, fixed
+ * number of {@link me.parted.anivia.model.EventLoop}s rather than giving each its own thread, so that a server can hold
+ * a very large number of mostly idle clients. From then on a socket is only ever read and written by its loop, which
+ * decodes what it reads and hands each message to the {@link me.parted.anivia.model.ChatServer.Handler} of the server.
+ * Handlers run on the thread of the loop, so they must not block. In {@link Mode#VIRTUAL_THREADS} mode each socket is
+ * instead read by a thread of its own, on which its handlers run.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.ChatConnection
+ * @since 1.0
+ */
+public class ChatServer implements AutoCloseable {
+
+    /**
+     * The {@code Mode} enum lists the ways in which a server can run its connections.
+     */
+    public enum Mode {
+
+        /**
+         * Non-blocking sockets multiplexed over a fixed number of selector threads.
+         */
+        EVENT_LOOP,
+
+        /**
+         * A thread per connection doing blocking reads. The threads are virtual threads on a JVM that has them, and
+         * platform threads with small stacks otherwise.
+         */
+        VIRTUAL_THREADS
+
+    }
+
+    /**
+     * The default limit on the bytes queued to be written to a single client.
+     */
+    public static final int DEFAULT_SEND_Q_LIMIT = 1024 * 1024;
+
+    /* The stack size of a platform thread standing in for a virtual thread */
+    private static final long STACK_SIZE = 256 * 1024;
+
+    /**
+     * The {@code Handler} interface receives the events of the connections of a server, on the thread that reads each
+     * connection.
+     */
+    public interface Handler {
+
+        /**
+         * Called once a connection has been accepted and is ready to be read.
+         *
+         * @param connection The new connection.
+         */
+        default void onConnect(@NotNull ChatConnection connection) {
+        }
+
+        /**
+         * Called for each complete message read from a connection, in order.
+         *
+         * @param connection The connection the message was read from.
+         * @param message    The decoded message.
+         */
+        void onMessage(@NotNull ChatConnection connection, @NotNull IrcMessage message);
+
+        /**
+         * Called once a connection that was reported to {@link #onConnect(ChatConnection)} has been closed.
+         *
+         * @param connection The closed connection.
+         */
+        default void onDisconnect(@NotNull ChatConnection connection) {
+        }
+
+    }
+
+    private final Handler handler;
+    private final Mode mode;
+    private final EventLoop[] loops;
+    private final ThreadFactory threadFactory;
+    private final boolean virtualThreads;
+    private final Set<ChatConnection> connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicLong sendQExceeded = new AtomicLong();
+    private volatile int sendQLimit = DEFAULT_SEND_Q_LIMIT;
+
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private int next;
+
+    /**
+     * Constructs a new {@code ChatServer} in {@link Mode#EVENT_LOOP} mode, which accepts nothing until it is bound.
+     *
+     * @param handler    The handler of the events of every connection.
+     * @param eventLoops The number of event loops, and so of threads, to run connections on.
+     * @throws IOException if the selectors of the loops cannot be opened
+     */
+    public ChatServer(@NotNull Handler handler, int eventLoops) throws IOException {
+        this(handler, Mode.EVENT_LOOP, eventLoops);
+    }
+
+    /**
+     * Constructs a new {@code ChatServer}, which accepts nothing until it is bound. In {@link Mode#EVENT_LOOP} mode
+     * there is an event loop for each available processor.
+     *
+     * @param handler The handler of the events of every connection.
+     * @param mode    The way in which connections are run.
+     * @throws IOException if the selectors of the loops cannot be opened
+     */
+    public ChatServer(@NotNull Handler handler, @NotNull Mode mode) throws IOException {
+        this(handler, mode, Runtime.getRuntime().availableProcessors());
+    }
+
+    private ChatServer(@NotNull Handler handler, @NotNull Mode mode, int eventLoops) throws IOException {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Cannot construct a ChatServer without an event loop.");
+        }
+        this.handler = handler;
+        this.mode = mode;
+        if (mode == Mode.EVENT_LOOP) {
+            this.loops = new EventLoop[eventLoops];
+            for (int i = 0; i < eventLoops; i++) {
+                loops[i] = new EventLoop("chat-loop-" + i);
+            }
+            this.threadFactory = null;
+            this.virtualThreads = false;
+        } else {
+            this.loops = new EventLoop[0];
+            ThreadFactory virtual = virtualThreadFactory();
+            this.threadFactory = virtual != null ? virtual : platformThreadFactory();
+            this.virtualThreads = virtual != null;
+        }
+    }
+
+    /**
+     * Binds the server to a local address and starts accepting connections.
+     *
+     * @param address The address to listen on, whose port may be 0 for any free port.
+     * @return The address the server is listening on.
+     * @throws IOException if the address cannot be bound
+     */
+    @NotNull
+    public synchronized InetSocketAddress bind(@NotNull SocketAddress address) throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("The ChatServer is already bound.");
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+        acceptor = new Thread(this::accept, "chat-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Returns the way in which this server runs its connections.
+     *
+     * @return The mode of this server.
+     */
+    @NotNull
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the number of connections that are currently open.
+     *
+     * @return The number of open connections.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Returns the limit on the bytes queued to be written to a single client.
+     *
+     * @return The SendQ limit in bytes.
+     */
+    public int getSendQLimit() {
+        return sendQLimit;
+    }
+
+    /**
+     * Sets the limit on the bytes queued to be written to a single client, past which the client is disconnected. The
+     * new limit applies to messages sent from then on.
+     *
+     * @param sendQLimit The SendQ limit in bytes.
+     */
+    public void setSendQLimit(int sendQLimit) {
+        if (sendQLimit < 1) {
+            throw new IllegalArgumentException("The SendQ limit must be positive.");
+        }
+        this.sendQLimit = sendQLimit;
+    }
+
+    /**
+     * Returns the total number of bytes queued to be written to every client, which is the sum of the
+     * {@link me.parted.anivia.model.ChatConnection#getQueuedBytes()} of every open connection.
+     *
+     * @return The depth of all outbound queues in bytes.
+     */
+    public long getQueuedBytes() {
+        long queued = 0;
+        for (ChatConnection connection : connections) {
+            queued += connection.getQueuedBytes();
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the number of clients that have been disconnected for going over the SendQ limit.
+     *
+     * @return The number of SendQ disconnections since the server was constructed.
+     */
+    public long getSendQExceededCount() {
+        return sendQExceeded.get();
+    }
+
+    /**
+     * Stops accepting connections, closes every open connection at once, without waiting for what is queued to be
+     * written, and stops the event loops. Once this returns, the threads reading the connections have exited and the
+     * handler has been told of every disconnection. If the calling thread is interrupted, it no longer waits for the
+     * acceptor, the event loops and the connection threads to exit but still tells them to, and returns with its
+     * interrupt status set.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        boolean interrupted = false;
+        if (serverChannel != null) {
+            serverChannel.close();
+            try {
+                acceptor.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        for (EventLoop loop : loops) {
+            if (interrupted) {
+                loop.stop();
+                continue;
+            }
+            try {
+                loop.shutdown();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        List<ChatConnection> open = new ArrayList<>(connections);
+        for (ChatConnection connection : open) {
+            connection.abort();
+        }
+        for (ChatConnection connection : open) {
+            if (!interrupted && connection instanceof BlockingConnection) {
+                try {
+                    ((BlockingConnection) connection).join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @NotNull
+    Handler handler() {
+        return handler;
+    }
+
+    @NotNull
+    ThreadFactory threadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * Returns true if the threads of {@link #threadFactory()} are virtual threads, which cost little to start.
+     */
+    boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Called by a connection once it has been closed.
+     *
+     * @param connection The closed connection.
+     * @param connected  True if the handler was told of the connection.
+     */
+    void closed(@NotNull ChatConnection connection, boolean connected) {
+        connections.remove(connection);
+        if (connected) {
+            handler.onDisconnect(connection);
+        }
+    }
+
+    void sendQExceeded() {
+        sendQExceeded.incrementAndGet();
+    }
+
+    private void accept() {
+        while (serverChannel.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                pause(); // closed, or out of file descriptors for now
+                continue;
+            }
+            try {
+                channel.socket().setTcpNoDelay(true);
+                if (mode == Mode.EVENT_LOOP) {
+                    EventLoop loop = loops[next];
+                    next = (next + 1) % loops.length;
+                    SelectorConnection connection = new SelectorConnection(this, loop, channel);
+                    connections.add(connection);
+                    loop.register(connection);
+                } else {
+                    BlockingConnection connection = new BlockingConnection(this, channel);
+                    connections.add(connection);
+                    connection.start();
+                }
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Never handed out
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a factory of virtual threads if the JVM has them, which is looked up reflectively so that the server
+     * still runs on older JVMs, or null otherwise.
+     */
+    @Nullable
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "chat-connection-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a factory of daemon platform threads with small stacks, which stand in for virtual threads.
+     */
+    @NotNull
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(null, runnable, "chat-connection-" + count.getAndIncrement(), STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void pause() {
+        if (serverChannel.isOpen()) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 
 }
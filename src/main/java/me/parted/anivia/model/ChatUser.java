@@ -1,7 +1,140 @@
 package me.parted.anivia.model;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import me.parted.anivia.irc.IrcPrefix;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@code ChatUser} class represents a user of a {@link me.parted.anivia.model.ChatNetwork}.
+ * <p>
+ * The nickname, user name and host of a user are kept in a single {@link me.parted.anivia.irc.IrcPrefix}, which is
+ * {@link me.parted.anivia.irc.IrcPrefix#encode() encoded} as soon as it is built, so that every message the user sends
+ * copies the prefix as bytes rather than encoding it again. The prefix is only replaced on NICK and CHGHOST, the two
+ * commands that change it. User names and hosts are interned, since many users share a host, such as that of a gateway
+ * or a cloak, and many more share a user name such as {@code ~user}. A user name given without a host is dropped, as
+ * it is from every prefix that has no host.
+ * <p>
+ * The nickname of a user only changes through {@link me.parted.anivia.model.ChatNetwork#changeNickname(ChatUser,
+ * String)}, which keeps it in step with the index of nicknames of the network.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Justin Kaufman
+ * @since 1.0
+ */
 public class ChatUser {
 
-    // TODO
-    
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+    private volatile IrcPrefix prefix;
+    private volatile String realname;
+
+    /**
+     * Constructs a new {@code ChatUser} that has only chosen a nickname so far.
+     *
+     * @param nickname The nickname of the user, as the user chose it.
+     */
+    public ChatUser(@NotNull String nickname) {
+        this(nickname, null, null, null);
+    }
+
+    /**
+     * Constructs a new {@code ChatUser}.
+     *
+     * @param nickname The nickname of the user, as the user chose it.
+     * @param user     The user name of the user, which may be null and is dropped if there is no host.
+     * @param host     The host of the user, which may be null.
+     * @param realname The real name of the user, which may be null.
+     */
+    public ChatUser(@NotNull String nickname, @Nullable String user, @Nullable String host,
+                    @Nullable String realname) {
+        this.prefix = prefix(nickname, user, host);
+        this.realname = realname;
+    }
+
+    /**
+     * Returns the nickname of this user.
+     *
+     * @return The nickname guaranteed not to be null.
+     */
+    @NotNull
+    public String getNickname() {
+        return prefix.getNickname();
+    }
+
+    /**
+     * Returns the user name of this user.
+     *
+     * @return A possibly null String containing the user name.
+     */
+    @Nullable
+    public String getUser() {
+        return prefix.getUser();
+    }
+
+    /**
+     * Returns the host of this user.
+     *
+     * @return A possibly null String containing the host.
+     */
+    @Nullable
+    public String getHost() {
+        return prefix.getHost();
+    }
+
+    /**
+     * Returns the real name of this user.
+     *
+     * @return A possibly null String containing the real name.
+     */
+    @Nullable
+    public String getRealname() {
+        return realname;
+    }
+
+    /**
+     * Returns the prefix of messages from this user, which is already encoded.
+     *
+     * @return The prefix {@code nick!user@host} guaranteed not to be null.
+     */
+    @NotNull
+    public IrcPrefix getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Changes the user name and host of this user, as by CHGHOST.
+     *
+     * @param user The new user name, which may be null and is dropped if there is no host.
+     * @param host The new host, which may be null.
+     */
+    public synchronized void changeHost(@Nullable String user, @Nullable String host) {
+        prefix = prefix(prefix.getNickname(), user, host);
+    }
+
+    /**
+     * Changes the real name of this user, as by SETNAME, which leaves the prefix as it is.
+     *
+     * @param realname The new real name, which may be null.
+     */
+    public void setRealname(@Nullable String realname) {
+        this.realname = realname;
+    }
+
+    synchronized void setNickname(@NotNull String nickname) {
+        prefix = prefix(nickname, prefix.getUser(), prefix.getHost());
+    }
+
+    @NotNull
+    private static IrcPrefix prefix(@NotNull String nickname, @Nullable String user, @Nullable String host) {
+        boolean hosted = !Strings.isNullOrEmpty(host);
+        IrcPrefix prefix = new IrcPrefix(nickname, hosted && user != null ? INTERNER.intern(user) : null,
+                hosted ? INTERNER.intern(host) : null);
+        prefix.encode();
+        return prefix;
+    }
+
 }
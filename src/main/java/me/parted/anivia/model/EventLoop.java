@@ -0,0 +1,182 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcFrame;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code EventLoop} class runs a single thread that owns a {@link java.nio.channels.Selector} and every connection
+ * registered with it. All reads, writes and state changes of a connection happen on the thread of its loop, so
+ * connections need no locking; other threads hand work to a loop through {@link #execute(Runnable)}.
+ * <p>
+ * Every connection of a loop reads into the same direct buffer, and gathers the frames it writes into the same arrays,
+ * so an idle connection holds no buffer of its own.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.ChatServer
+ * @since 1.0
+ */
+final class EventLoop implements Runnable {
+
+    /* The size of the buffer shared by every connection of a loop for reading */
+    static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean awake = new AtomicBoolean();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    final IrcFrame[] gatherFrames = new IrcFrame[ChatConnection.MAX_GATHER];
+    final ByteBuffer[] gatherBuffers = new ByteBuffer[ChatConnection.MAX_GATHER];
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new {@code EventLoop} whose thread has not yet been started.
+     *
+     * @param name The name of the thread of the loop.
+     * @throws IOException if the selector cannot be opened
+     */
+    EventLoop(@NotNull String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Returns true if the calling thread is the thread of this loop.
+     */
+    boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Runs a task on the thread of this loop, after any tasks handed to it before. The selector is woken up at most once
+     * however many tasks arrive while it sleeps.
+     *
+     * @param task The task to run.
+     */
+    void execute(@NotNull Runnable task) {
+        tasks.add(task);
+        if (!inLoop() && awake.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Hands a newly accepted socket to this loop, which registers it for reading.
+     *
+     * @param connection The connection wrapping the socket.
+     */
+    void register(@NotNull SelectorConnection connection) {
+        execute(() -> {
+            SocketChannel channel = connection.channel();
+            try {
+                channel.configureBlocking(false);
+                connection.registered(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException | RuntimeException e) {
+                connection.closeNow();
+            }
+        });
+    }
+
+    /**
+     * Stops the loop and waits for its thread to exit. Connections still registered with it are closed.
+     */
+    void shutdown() throws InterruptedException {
+        stop();
+        if (thread.isAlive() && !inLoop()) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Stops the loop without waiting for its thread to exit, which closes the connections still registered with it
+     * on its way out.
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+        if (!thread.isAlive()) {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Never used
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                awake.set(false);
+                if (tasks.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.selectNow();
+                }
+                awake.set(true);
+                runTasks();
+                processSelectedKeys();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // The selector is gone, and so are the connections
+        } finally {
+            runTasks();
+            for (SelectionKey key : selector.keys()) {
+                ((SelectorConnection) key.attachment()).closeNow();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Nothing more can be done
+            }
+        }
+    }
+
+    private void runTasks() {
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // A failing handler must not stop the loop, and has nowhere else to report to
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            SelectorConnection connection = (SelectorConnection) key.attachment();
+            try {
+                if (key.isValid() && key.isWritable()) {
+                    connection.flush();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    readBuffer.clear();
+                    connection.read(readBuffer);
+                }
+            } catch (IOException | RuntimeException e) {
+                // A connection that fails, or whose handler fails, must not take the rest of the loop down with it
+                connection.closeNow();
+            }
+        }
+    }
+
+}
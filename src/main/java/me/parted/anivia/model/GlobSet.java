@@ -2,31 +2,94 @@ package me.parted.anivia.model;
 
 import me.parted.anivia.exception.AlreadyExistsException;
 import me.parted.anivia.exception.InvalidGlobException;
+import me.parted.anivia.fsm.Dfa;
+import me.parted.anivia.fsm.FsmBuilder;
+import me.parted.anivia.irc.IrcCaseMapping;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 /**
  * The {@code GlobSet} class stores a set of glob-type regexes and provides public methods for retrieving, adding,
  * removing, and checking against them in an efficient manner.
+ * <p>
+ * The globs are compiled into minimized {@link me.parted.anivia.fsm.Dfa}s, each covering a shard of up to
+ * {@value #MAX_SHARD_SIZE} globs, so a match is one linear pass over the input per shard. Shards are merged as they
+ * fill up, in the manner of a binary counter, so that adding globs one at a time costs amortized logarithmic work per
+ * glob. The wildcards '*' and '?' match any sequence of characters and any single character respectively, and a
+ * backslash matches the character following it literally. Matching ignores case under the
+ * {@link me.parted.anivia.irc.IrcCaseMapping} of the set, which folds the globs and the matched Strings alike one
+ * character at a time, whatever the default locale.
+ * <p>
+ * Removing a glob compiles nothing: the glob is only marked as removed in its shard, whose DFA still accepts it, so a
+ * String accepted by a shard with removed globs is then tried against the remaining globs of the shard one by one.
+ * Once half of the globs of a shard are removed, the shard is dropped and its remaining globs are added again, which
+ * costs no more than compiling the globs that were removed. Every shard thus holds more than half live globs, and a
+ * set of n globs has fewer than n / {@value #MAX_SHARD_SIZE} * 2 + 9 shards, which bounds the passes of a match.
+ * <p>
+ * This class is thread-safe. Matching takes no locks: it runs against an immutable snapshot of the shards, which
+ * writers rebuild off to the side and then publish in a single volatile write. Writers are serialized with each other.
+ * <p>
+ * A GlobSet can be saved to a file along with its compiled shards with {@link #save(Path)}, so that a restart or a
+ * rehash can {@link #load(Path)} it without compiling any globs.
  *
  * @author Justin Kaufman
  * @since 1.0
  */
 public class GlobSet {
 
-    private final Map<String, String> globToRegexMap;
-    private Pattern pattern;
-    private Matcher matcher;
+    /* The largest number of globs merged into a single DFA */
+    static final int MAX_SHARD_SIZE = 256;
+
+    /* The header of a saved GlobSet: "GSET", the version, the number of shards, and the CRC-32 of the rest, which
+       starts with the token of the case mapping */
+    private static final int MAGIC = 0x47534554;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+
+    private final IrcCaseMapping mapping;
+
+    /* Guarded by this, and only used by writers */
+    private final Map<String, Shard> globs;
+    private final List<Shard> shards;
+
+    /* The shards as of the last completed write, which readers use without locking */
+    private volatile Shard[] snapshot;
 
     /**
-     * Default constructor initializes an empty set.
+     * Default constructor initializes an empty set, which folds case under {@link IrcCaseMapping#RFC1459}.
      */
     public GlobSet() {
-        this.globToRegexMap = new HashMap<>();
+        this(IrcCaseMapping.RFC1459);
+    }
+
+    /**
+     * Initializes an empty set, which folds case under a given mapping.
+     * @param mapping the case mapping of the network, as advertised in {@code CASEMAPPING}
+     */
+    public GlobSet(@NotNull IrcCaseMapping mapping) {
+        this.mapping = mapping;
+        this.globs = new HashMap<>();
+        this.shards = new ArrayList<>();
+        this.snapshot = new Shard[0];
+    }
+
+    /**
+     * Returns the case mapping under which this GlobSet ignores case.
+     * @return the case mapping
+     */
+    @NotNull
+    public IrcCaseMapping getCaseMapping() {
+        return mapping;
     }
 
     /**
@@ -35,24 +98,78 @@ public class GlobSet {
      */
     @NotNull
     public List<String> getGlobList() {
-        return new LinkedList<>(globToRegexMap.keySet());
+        List<String> list = new LinkedList<>();
+        for (Shard shard : snapshot) {
+            for (int i = 0; i < shard.globs.size(); i++) {
+                if (!shard.removed.get(i)) {
+                    list.add(shard.globs.get(i));
+                }
+            }
+        }
+        return list;
     }
 
     /**
-     * Returns true if a provided String matches any of the regexes in this set.
+     * Returns true if a provided String matches any of the globs in this set.
      * @param str the {@link java.lang.String} to test
      * @return true if a match is found
      */
     public boolean match(@Nullable String str) {
-        if (str == null || pattern == null) {
+        if (str == null) {
             return false;
         }
-        str = str.toLowerCase();
-        if (matcher == null) {
-            matcher = pattern.matcher(str);
-            return matcher.matches();
+        for (Shard shard : snapshot) {
+            Dfa dfa = shard.dfa;
+            int state = dfa.start();
+            for (int i = 0; i < str.length() && state != Dfa.DEAD; i++) {
+                state = dfa.next(state, mapping.fold(str.charAt(i)));
+            }
+            if (dfa.isAccepting(state)) {
+                if (shard.removed.isEmpty()) {
+                    return true;
+                }
+                for (int i = 0; i < shard.globs.size(); i++) {
+                    if (!shard.removed.get(i) && matches(shard.globs.get(i), str, mapping)) {
+                        return true;
+                    }
+                }
+            }
         }
-        return matcher.reset(str).matches();
+        return false;
+    }
+
+    /**
+     * Returns every glob in this set that a provided String matches. The shards are matched as in
+     * {@link #match(String)}, and only the globs of a shard that matched are then tried one by one, so a String that
+     * matches nothing costs no more than it does there.
+     * <p>
+     * The DFA of a shard does not tell its globs apart: a DFA reporting which of its globs matched would have to keep
+     * track of every combination of globs that can match at once, and so grows exponentially with the number of globs.
+     * @param str the {@link java.lang.String} to test
+     * @return the matching globs, which is empty if there are none
+     */
+    @NotNull
+    public List<String> matchAll(@Nullable String str) {
+        if (str == null) {
+            return Collections.emptyList();
+        }
+        List<String> matches = new ArrayList<>();
+        for (Shard shard : snapshot) {
+            Dfa dfa = shard.dfa;
+            int state = dfa.start();
+            for (int i = 0; i < str.length() && state != Dfa.DEAD; i++) {
+                state = dfa.next(state, mapping.fold(str.charAt(i)));
+            }
+            if (dfa.isAccepting(state)) {
+                for (int i = 0; i < shard.globs.size(); i++) {
+                    String glob = shard.globs.get(i);
+                    if (!shard.removed.get(i) && matches(glob, str, mapping)) {
+                        matches.add(glob);
+                    }
+                }
+            }
+        }
+        return matches;
     }
 
     /**
@@ -62,22 +179,31 @@ public class GlobSet {
      * @throws InvalidGlobException if this regex is invalid
      */
     public void addGlob(@NotNull String glob) throws AlreadyExistsException, InvalidGlobException {
-        glob = glob.toLowerCase();
-        if (globToRegexMap.containsKey(glob)) {
-            throw new AlreadyExistsException("The glob already exists in the GlobSet.");
-        }
+        addAll(Collections.singletonList(glob));
+    }
 
-        // Test the glob before adding it to our cache.
-        String regex = globToRegex(glob);
-        try {
-            //noinspection ResultOfMethodCallIgnored
-            Pattern.compile(regex);
-        } catch (Exception e) {
-            throw new InvalidGlobException("The glob is invalid and cannot be compiled.");
+    /**
+     * Adds a number of globs to this GlobSet at once, which costs linear work in the total size of the globs. If any of
+     * the globs cannot be added, none of them are.
+     * @param globs the glob regexes to add
+     * @throws AlreadyExistsException if any of these regexes is already present in the GlobSet or given twice
+     * @throws InvalidGlobException if any of these regexes is invalid
+     */
+    public synchronized void addAll(@NotNull Collection<String> globs)
+            throws AlreadyExistsException, InvalidGlobException {
+        Set<String> added = new LinkedHashSet<>();
+        for (String glob : globs) {
+            glob = fold(glob);
+            if (this.globs.containsKey(glob) || !added.add(glob)) {
+                throw new AlreadyExistsException("The glob already exists in the GlobSet.");
+            }
+            if (glob.endsWith("\\") && !isEscaped(glob, glob.length() - 1)) {
+                throw new InvalidGlobException("The glob ends with an unfinished escape sequence.");
+            }
         }
 
-        globToRegexMap.put(glob, globToRegex(glob));
-        compilePatterns();
+        append(new ArrayList<>(added));
+        publish();
     }
 
     /**
@@ -85,79 +211,430 @@ public class GlobSet {
      * @param glob the glob to remove
      */
     public void removeGlob(@NotNull String glob) {
-        glob = glob.toLowerCase();
-        globToRegexMap.remove(glob);
-        try {
-            compilePatterns();
-        } catch (InvalidGlobException e) {
-            // We shouldn't ever get this error, so log it, but continue execution.
-            // TODO logging
-        }
+        removeAll(Collections.singletonList(glob));
     }
 
     /**
-     * Concatenates all of the patterns currently in our glob-to-regex map into a single compiled pattern.
-     * @throws InvalidGlobException if the compilation of the pattern fails
+     * Removes a number of globs from this GlobSet at once. The globs are only marked as removed in their shards, and a
+     * shard is compiled again only once half of its globs are removed.
+     * @param globs the globs to remove
      */
-    private void compilePatterns() throws InvalidGlobException {
-        StringBuilder sb = new StringBuilder();
-        sb.append("^"); // regex beginning
-        Iterator<String> it = globToRegexMap.values().iterator();
-        while (it.hasNext()) {
-            String regex = it.next();
-            if (it.hasNext()) {
-                sb.append("(").append(regex).append(")|");
+    public synchronized void removeAll(@NotNull Collection<String> globs) {
+        Map<Shard, BitSet> affected = new HashMap<>();
+        for (String glob : globs) {
+            glob = fold(glob);
+            Shard shard = this.globs.remove(glob);
+            if (shard != null) {
+                BitSet removed = affected.get(shard);
+                if (removed == null) {
+                    removed = (BitSet) shard.removed.clone();
+                    affected.put(shard, removed);
+                }
+                removed.set(shard.indexOf(glob));
+            }
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+        List<String> remaining = new ArrayList<>();
+        for (Map.Entry<Shard, BitSet> entry : affected.entrySet()) {
+            Shard shard = entry.getKey();
+            BitSet removed = entry.getValue();
+            int index = shards.indexOf(shard);
+            if (removed.cardinality() * 2 >= shard.globs.size()) {
+                // Fewer globs are left than were removed, so compiling them again is paid for by the removals.
+                shards.remove(index);
+                for (int i = removed.nextClearBit(0); i < shard.globs.size(); i = removed.nextClearBit(i + 1)) {
+                    remaining.add(shard.globs.get(i));
+                }
             } else {
-                sb.append("(").append(regex).append(")");
+                shard = new Shard(shard.globs, shard.dfa, removed);
+                shards.set(index, shard);
+                addGlobs(shard);
+            }
+        }
+        append(remaining);
+        publish();
+    }
+
+    /**
+     * Saves this GlobSet to a file, together with the compiled DFA of each of its shards. The file is written next to
+     * its destination and then moved into place, so that a reader never sees it half written.
+     * @param path the file to save to, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void save(@NotNull Path path) throws IOException {
+        Shard[] shards = snapshot;
+        List<byte[][]> encoded = new ArrayList<>(shards.length);
+        byte[] token = mapping.getToken().getBytes(StandardCharsets.UTF_8);
+        long size = HEADER_SIZE + 4 + token.length;
+        for (Shard shard : shards) {
+            byte[][] globs = new byte[shard.globs.size()][];
+            size += 4;
+            for (int i = 0; i < globs.length; i++) {
+                globs[i] = shard.globs.get(i).getBytes(StandardCharsets.UTF_8);
+                size += 4 + globs[i].length;
             }
+            size += 4 + 4 * shard.removed.cardinality();
+            size += shard.dfa.serializedSize();
+            encoded.add(globs);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The GlobSet is too large to save.");
         }
-        sb.append("$"); // regex end
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.position(HEADER_SIZE);
+        buffer.putInt(token.length);
+        buffer.put(token);
+        for (int s = 0; s < shards.length; s++) {
+            buffer.putInt(encoded.get(s).length);
+            for (byte[] glob : encoded.get(s)) {
+                buffer.putInt(glob.length);
+                buffer.put(glob);
+            }
+            BitSet removed = shards[s].removed;
+            buffer.putInt(removed.cardinality());
+            for (int i = removed.nextSetBit(0); i >= 0; i = removed.nextSetBit(i + 1)) {
+                buffer.putInt(i);
+            }
+            shards[s].dfa.writeTo(buffer);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, buffer.capacity() - HEADER_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, shards.length);
+        buffer.putInt(12, (int) crc.getValue());
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
         try {
-            pattern = Pattern.compile(sb.toString());
-        } catch (Exception e) {
-            // We shouldn't ever get this error since we check patterns before adding them, so log it
-            // TODO logging
-            throw new InvalidGlobException("The patterns in this cache could not be concatenated and compiled.");
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
-        matcher = null; // null out matcher so it will be recompiled on first use
     }
 
     /**
-     * This method accepts a glob regex, quotes it for safety, and then replaces the wildcards '*' and '?' with '.*' and
-     * '.' respectively.
-     * @param glob the glob regex to convert
-     * @return the equivalent Java-style regex
+     * Loads a GlobSet saved by {@link #save(Path)}. The compiled shards are read back as they were saved, so no globs
+     * are compiled.
+     * @param path the file to load from
+     * @return the loaded GlobSet
+     * @throws IOException if the file cannot be read, or does not hold a GlobSet of the current version
      */
     @NotNull
-    private static String globToRegex(@NotNull String glob) {
-        boolean escaped = false;
-        int start = 0, end = 0;
-        StringBuilder regex = new StringBuilder();
-        for (char c : glob.toCharArray()) {
-            switch (c) {
-                case '\\':
-                    escaped = !escaped;
-                    break;
-                case '*':
-                    if (!escaped) {
-                        regex.append(Pattern.quote(glob.substring(start, end)));
-                        regex.append(".*");
-                        start = ++end;
+    public static GlobSet load(@NotNull Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " does not hold a saved GlobSet.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " holds a GlobSet of unsupported version " + version + ".");
+            }
+            int shardCount = buffer.getInt();
+            int checksum = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), HEADER_SIZE, buffer.capacity() - HEADER_SIZE);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException(path + " does not match its checksum.");
+            }
+
+            byte[] token = new byte[buffer.getInt()];
+            buffer.get(token);
+            IrcCaseMapping mapping = IrcCaseMapping.of(new String(token, StandardCharsets.UTF_8));
+            if (mapping == null) {
+                throw new IOException(path + " is corrupt.");
+            }
+            GlobSet globSet = new GlobSet(mapping);
+            for (int s = 0; s < shardCount; s++) {
+                int globCount = buffer.getInt();
+                if (globCount < 1 || globCount > MAX_SHARD_SIZE) {
+                    throw new IOException(path + " is corrupt.");
+                }
+                List<String> globs = new ArrayList<>(globCount);
+                for (int i = 0; i < globCount; i++) {
+                    byte[] glob = new byte[buffer.getInt()];
+                    buffer.get(glob);
+                    globs.add(new String(glob, StandardCharsets.UTF_8));
+                }
+                int removedCount = buffer.getInt();
+                if (removedCount < 0 || removedCount * 2 >= globCount) {
+                    throw new IOException(path + " is corrupt.");
+                }
+                BitSet removed = new BitSet(globCount);
+                for (int i = 0; i < removedCount; i++) {
+                    int index = buffer.getInt();
+                    if (index < 0 || index >= globCount || removed.get(index)) {
+                        throw new IOException(path + " is corrupt.");
                     }
-                    break;
-                case '?':
-                    if (!escaped) {
-                        regex.append(Pattern.quote(glob.substring(start, end)));
-                        regex.append(".");
-                        start = ++end;
+                    removed.set(index);
+                }
+                Shard shard = new Shard(globs, Dfa.readFrom(buffer), removed);
+                for (int i = removed.nextClearBit(0); i < globCount; i = removed.nextClearBit(i + 1)) {
+                    if (globSet.globs.containsKey(globs.get(i))) {
+                        throw new IOException(path + " holds the glob " + globs.get(i) + " twice.");
                     }
-                    break;
-                default:
-                    ++end;
+                }
+                globSet.addShard(shard);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException(path + " is corrupt.");
+            }
+            globSet.publish();
+            return globSet;
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException(path + " is truncated.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the number of shards that a match runs over.
+     */
+    int shardCount() {
+        return snapshot.length;
+    }
+
+    /**
+     * Makes the current shards visible to readers.
+     */
+    private void publish() {
+        snapshot = shards.toArray(new Shard[shards.size()]);
+    }
+
+    private void addShard(@NotNull Shard shard) {
+        shards.add(shard);
+        addGlobs(shard);
+    }
+
+    /**
+     * Points each glob of a shard that is not removed at the shard.
+     */
+    private void addGlobs(@NotNull Shard shard) {
+        for (int i = shard.removed.nextClearBit(0); i < shard.globs.size(); i = shard.removed.nextClearBit(i + 1)) {
+            globs.put(shard.globs.get(i), shard);
+        }
+    }
+
+    /**
+     * Adds globs that are not in this GlobSet as new shards. Full shards are compiled directly and put in front of the
+     * others, and the remainder goes through the merging of small shards at the end.
+     */
+    private void append(@NotNull List<String> batch) {
+        int full = batch.size() - batch.size() % MAX_SHARD_SIZE;
+        for (int i = 0; i < full; i += MAX_SHARD_SIZE) {
+            Shard shard = new Shard(batch.subList(i, i + MAX_SHARD_SIZE));
+            shards.add(0, shard);
+            addGlobs(shard);
+        }
+        for (String glob : batch.subList(full, batch.size())) {
+            addShard(new Shard(Collections.singletonList(glob)));
+            mergeShards();
+        }
+    }
+
+    /**
+     * Merges the last shard into the one before it for as long as it is at least as large, and the merged shard is not
+     * too large. This keeps the shards that are not full in decreasing order of size, and as their sizes are powers of
+     * two there are only logarithmically many of them. Removed globs are carried over into the merged shard.
+     */
+    private void mergeShards() {
+        while (shards.size() >= 2) {
+            Shard last = shards.get(shards.size() - 1);
+            Shard previous = shards.get(shards.size() - 2);
+            if (previous.globs.size() > last.globs.size()
+                    || previous.globs.size() + last.globs.size() > MAX_SHARD_SIZE) {
+                return;
+            }
+            List<String> merged = new ArrayList<>(previous.globs);
+            merged.addAll(last.globs);
+            BitSet removed = (BitSet) previous.removed.clone();
+            for (int i = last.removed.nextSetBit(0); i >= 0; i = last.removed.nextSetBit(i + 1)) {
+                removed.set(previous.globs.size() + i);
+            }
+            Shard shard = new Shard(merged, previous.dfa.union(last.dfa).minimize(), removed);
+            shards.remove(shards.size() - 1);
+            shards.set(shards.size() - 1, shard);
+            addGlobs(shard);
+        }
+    }
+
+    /**
+     * Compiles a number of globs into a single minimized DFA. Determinizing the union of all of the globs at once can
+     * take exponential time even when the minimal DFA is small, so the DFAs of the globs are merged pairwise and
+     * minimized after each merge instead.
+     * @param globs the globs to compile
+     * @return the DFA matching any of the globs
+     */
+    @NotNull
+    private static Dfa compile(@NotNull Collection<String> globs) {
+        List<Dfa> dfas = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            dfas.add(globToFsm(glob).build());
+        }
+        while (dfas.size() > 1) {
+            List<Dfa> merged = new ArrayList<>((dfas.size() + 1) / 2);
+            for (int i = 0; i + 1 < dfas.size(); i += 2) {
+                merged.add(dfas.get(i).union(dfas.get(i + 1)).minimize());
+            }
+            if (dfas.size() % 2 == 1) {
+                merged.add(dfas.get(dfas.size() - 1));
+            }
+            dfas = merged;
+        }
+        return dfas.get(0);
+    }
+
+    /**
+     * This method accepts a glob and builds the equivalent NFA, in which the wildcards '*' and '?' consume any number of
+     * characters and any one character respectively. Each wildcard is a single transition on the whole range of
+     * characters.
+     * @param glob the glob regex to convert
+     * @return the equivalent NFA builder
+     */
+    @NotNull
+    private static FsmBuilder globToFsm(@NotNull String glob) {
+        if (glob.isEmpty()) {
+            return new FsmBuilder().choice();
+        }
+
+        FsmBuilder builder = new FsmBuilder();
+        boolean escaped = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (!escaped && c == '\\') {
+                escaped = true;
+                continue;
+            }
+            if (!escaped && c == '*') {
+                builder = builder.followedBy(new FsmBuilder()
+                        .followedBy(Character.MIN_VALUE, Character.MAX_VALUE).star());
+            } else if (!escaped && c == '?') {
+                builder = builder.followedBy(Character.MIN_VALUE, Character.MAX_VALUE);
+            } else {
+                builder = builder.followedBy(new char[]{c});
+            }
+            escaped = false;
+        }
+        return builder;
+    }
+
+    /**
+     * Returns true if a String matches a single glob, ignoring case, by backtracking to the last '*' on a mismatch.
+     * @param glob the glob regex, folded by {@link #fold(String)}
+     * @param str the {@link java.lang.String} to test
+     * @param mapping the case mapping that folded the glob
+     * @return true if the glob matches
+     */
+    private static boolean matches(@NotNull String glob, @NotNull String str, @NotNull IrcCaseMapping mapping) {
+        int g = 0;
+        int s = 0;
+        int star = -1;
+        int starMatch = 0;
+        while (s < str.length()) {
+            if (g < glob.length()) {
+                char c = glob.charAt(g);
+                if (c == '*') {
+                    star = ++g;
+                    starMatch = s;
+                    continue;
+                }
+                int next = g + 1;
+                if (c == '\\') {
+                    c = glob.charAt(g + 1);
+                    next = g + 2;
+                } else if (c == '?') {
+                    c = mapping.fold(str.charAt(s));
+                }
+                if (c == mapping.fold(str.charAt(s))) {
+                    g = next;
+                    s++;
+                    continue;
+                }
+            }
+            if (star < 0) {
+                return false;
+            }
+            g = star;
+            s = ++starMatch;
+        }
+        while (g < glob.length() && glob.charAt(g) == '*') {
+            g++;
+        }
+        return g == glob.length();
+    }
+
+    /**
+     * Folds the case of a glob one character at a time, as matched Strings are folded. A backslash that escapes the
+     * next character is kept as it is, since the mapping may fold it as a literal character.
+     * @param glob the glob regex to fold
+     * @return the folded glob
+     */
+    @NotNull
+    private String fold(@NotNull String glob) {
+        char[] folded = new char[glob.length()];
+        boolean escaped = false;
+        for (int i = 0; i < folded.length; i++) {
+            char c = glob.charAt(i);
+            if (!escaped && c == '\\') {
+                folded[i] = c;
+                escaped = true;
+            } else {
+                folded[i] = mapping.fold(c);
+                escaped = false;
+            }
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Returns true if the character at an index of a glob is preceded by an odd number of backslashes.
+     */
+    private static boolean isEscaped(@NotNull String glob, int index) {
+        int backslashes = 0;
+        while (index > backslashes && glob.charAt(index - backslashes - 1) == '\\') {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * An immutable group of globs compiled into a single DFA, some of which may have been removed since. The set of
+     * removed globs is never modified once the shard is constructed.
+     */
+    private static final class Shard {
+        final List<String> globs;
+        final Dfa dfa;
+        final BitSet removed;
+
+        Shard(@NotNull Collection<String> globs) {
+            this.globs = Collections.unmodifiableList(new ArrayList<>(globs));
+            this.dfa = compile(this.globs);
+            this.removed = new BitSet();
+        }
+
+        Shard(@NotNull List<String> globs, @NotNull Dfa dfa, @NotNull BitSet removed) {
+            this.globs = Collections.unmodifiableList(globs);
+            this.dfa = dfa;
+            this.removed = removed;
+        }
+
+        /**
+         * Returns the index of a glob that is not removed, which a merge may have put after a removed copy of itself.
+         */
+        int indexOf(@NotNull String glob) {
+            for (int i = removed.nextClearBit(0); i < globs.size(); i = removed.nextClearBit(i + 1)) {
+                if (globs.get(i).equals(glob)) {
+                    return i;
+                }
             }
+            return -1;
         }
-        regex.append(Pattern.quote(glob.substring(start, end)));
-        return regex.toString();
     }
 
 }
@@ -0,0 +1,243 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcCaseMapping;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code NameIndex} class maps nicknames or channel names to the users or channels they belong to, with names
+ * compared under an {@link me.parted.anivia.irc.IrcCaseMapping}. It sits on the path of nearly every command that
+ * names a target, so looking up a name neither folds it into a new string nor takes a lock.
+ * <p>
+ * Entries live in a single open-addressed table with linear probing, and each slot holds an immutable entry with the
+ * name, its hash and the value, so that a reader sees either all of an entry or none of it. A removed entry leaves a
+ * tombstone behind, which readers probe past, because moving entries back over the hole could briefly hide them from a
+ * reader. Writers are serialized with each other, and once the table is more than three quarters full of entries and
+ * tombstones they rehash the live entries into a new table, which is published in a single volatile write.
+ * <p>
+ * This class is thread-safe. A lookup that races with a change sees the index as it was either before or after it.
+ *
+ * @param <V> The type of the values.
+ * @author Justin Kaufman
+ * @since 1.0
+ */
+final class NameIndex<V> {
+
+    /* The capacity of an empty table, which is a power of two */
+    static final int MIN_CAPACITY = 16;
+
+    private static final Entry<?> TOMBSTONE = new Entry<>("", 0, null);
+
+    private final IrcCaseMapping mapping;
+
+    /* Replaced while holding the lock of this index, and only modified in place while holding it */
+    private volatile AtomicReferenceArray<Entry<V>> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+    /* Guarded by this */
+    private int size;
+    private int used; // live entries and tombstones
+
+    NameIndex(@NotNull IrcCaseMapping mapping) {
+        this.mapping = mapping;
+    }
+
+    /**
+     * Returns the value of a name.
+     *
+     * @param name The name, in any case.
+     * @return The value, or null if the name is not in this index.
+     */
+    @Nullable
+    V get(@NotNull CharSequence name) {
+        int h = mapping.hash(name);
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int mask = table.length() - 1;
+        for (int i = spread(h) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = table.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && entry.hash == h && mapping.equals(entry.name, name)) {
+                return entry.value;
+            }
+        }
+    }
+
+    /**
+     * Adds a name unless it is taken.
+     *
+     * @param name The name, as it is to be kept.
+     * @param value The value.
+     * @return The value already in this index under the name, or null if the name was added.
+     */
+    @Nullable
+    synchronized V putIfAbsent(@NotNull String name, @NotNull V value) {
+        int h = mapping.hash(name);
+        int found = find(table, name, h);
+        if (found >= 0) {
+            return table.get(found).value;
+        }
+        insert(new Entry<>(name, h, value));
+        return null;
+    }
+
+    /**
+     * Removes a name if it belongs to a given value.
+     *
+     * @param name The name, in any case.
+     * @param value The value that the name must belong to.
+     * @return True if the name was removed.
+     */
+    synchronized boolean remove(@NotNull CharSequence name, @NotNull V value) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int found = find(table, name, mapping.hash(name));
+        if (found < 0 || table.get(found).value != value) {
+            return false;
+        }
+        table.set(found, tombstone());
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves a value from one name to another, as by NICK, so that no other writer can take either name in between and
+     * a reader always finds the value under at least one of them. The new name may differ from the old one only in
+     * case.
+     *
+     * @param from The name that the value has now, in any case.
+     * @param to The name that the value is to have, as it is to be kept.
+     * @param value The value.
+     * @return True if the value was moved, or false if the new name belongs to another value or the old name does not
+     * belong to this one.
+     */
+    synchronized boolean rename(@NotNull CharSequence from, @NotNull String to, @NotNull V value) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int h = mapping.hash(to);
+        int old = find(table, from, mapping.hash(from));
+        int taken = find(table, to, h);
+        if (old < 0 || table.get(old).value != value || (taken >= 0 && taken != old)) {
+            return false;
+        }
+        Entry<V> entry = new Entry<>(to, h, value);
+        if (taken == old) {
+            table.set(old, entry); // only the case changed, so the slot is the same
+            return true;
+        }
+        insert(entry);
+        this.table.set(find(this.table, from, mapping.hash(from)), tombstone());
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of names in this index.
+     *
+     * @return The number of names.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the table, which is a power of two.
+     *
+     * @return The capacity of the table.
+     */
+    int capacity() {
+        return table.length();
+    }
+
+    private int find(@NotNull AtomicReferenceArray<Entry<V>> table, @NotNull CharSequence name, int h) {
+        int mask = table.length() - 1;
+        for (int i = spread(h) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = table.get(i);
+            if (entry == null) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && entry.hash == h && mapping.equals(entry.name, name)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Stores an entry whose name is not in the table, in the first tombstone or empty slot of its probe sequence. A
+     * reader probing past that slot for another name simply sees one more name that is not its own. The table is grown,
+     * or cleaned of tombstones, before the last quarter of it fills up, so that every probe sequence ends in an empty
+     * slot.
+     */
+    private void insert(@NotNull Entry<V> entry) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        if ((used + 1) * 4 > table.length() * 3) {
+            table = rehash();
+        }
+        int mask = table.length() - 1;
+        int i = spread(entry.hash) & mask;
+        for (Entry<V> current; (current = table.get(i)) != null; i = (i + 1) & mask) {
+            if (current == TOMBSTONE) {
+                table.set(i, entry);
+                size++;
+                return;
+            }
+        }
+        table.set(i, entry);
+        size++;
+        used++;
+    }
+
+    /**
+     * Copies the live entries into a new table, which they fill to no more than three eighths, and publishes it.
+     */
+    @NotNull
+    private AtomicReferenceArray<Entry<V>> rehash() {
+        AtomicReferenceArray<Entry<V>> old = this.table;
+        int capacity = MIN_CAPACITY;
+        while ((size + 1) * 4 > capacity * 3 / 2) {
+            capacity <<= 1;
+        }
+        AtomicReferenceArray<Entry<V>> table = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length(); i++) {
+            Entry<V> entry = old.get(i);
+            if (entry != null && entry != TOMBSTONE) {
+                int j = spread(entry.hash) & mask;
+                while (table.get(j) != null) {
+                    j = (j + 1) & mask;
+                }
+                table.lazySet(j, entry);
+            }
+        }
+        this.table = table;
+        used = size;
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V> tombstone() {
+        return (Entry<V>) TOMBSTONE;
+    }
+
+    /**
+     * Spreads the higher bits of a hash code into the lower ones, which choose the slot.
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry<V> {
+
+        final String name;
+        final int hash;
+        final V value;
+
+        Entry(@NotNull String name, int hash, V value) {
+            this.name = name;
+            this.hash = hash;
+            this.value = value;
+        }
+
+    }
+
+}
@@ -0,0 +1,190 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcFrame;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code SelectorConnection} class is a {@link me.parted.anivia.model.ChatConnection} that belongs to a single
+ * {@link me.parted.anivia.model.EventLoop}, which reads from and writes to its non-blocking socket. Sends hand one
+ * flush to the loop at a time, which writes out as much of the queue as the socket takes with a syscall per
+ * {@value ChatConnection#MAX_GATHER} frames. The loop asks the selector to be told when the socket can take more only
+ * while a write is left incomplete.
+ *
+ * @author Justin Kaufman
+ * @see me.parted.anivia.model.ChatServer.Mode#EVENT_LOOP
+ * @since 1.0
+ */
+final class SelectorConnection extends ChatConnection {
+
+    private final EventLoop loop;
+    private final SocketChannel channel;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /* Only used on the thread of the loop */
+    private SelectionKey key;
+    private IrcFrame[] stalled;         // the frames left unwritten by a gathering write, until the socket is writable
+    private ByteBuffer[] stalledBuffers;
+
+    SelectorConnection(@NotNull ChatServer server, @NotNull EventLoop loop, @NotNull SocketChannel channel)
+            throws IOException {
+        super(server, channel.getRemoteAddress());
+        this.loop = loop;
+        this.channel = channel;
+    }
+
+    /**
+     * Closes this connection once the messages queued so far have been handed to the loop.
+     */
+    @Override
+    public void close() {
+        loop.execute(this::closeNow);
+    }
+
+    /**
+     * Closes this connection on the thread of the loop, which discards whatever the socket has not taken yet.
+     */
+    @Override
+    void abort() {
+        close();
+    }
+
+    @Override
+    void flushLater() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::scheduledFlush);
+        }
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    void registered(@NotNull SelectionKey key) {
+        this.key = key;
+        server.handler().onConnect(this);
+    }
+
+    /**
+     * Reads whatever the socket holds and decodes it.
+     *
+     * @param buffer The buffer of the loop, cleared.
+     * @throws IOException if the socket fails
+     */
+    void read(@NotNull ByteBuffer buffer) throws IOException {
+        int n = channel.read(buffer);
+        if (n < 0) {
+            closeNow();
+            return;
+        }
+        buffer.flip();
+        decode(buffer);
+    }
+
+    /**
+     * Writes queued frames, up to MAX_GATHER at a time in a single gathering write, until the queue is empty or the
+     * socket can take no more. In that case the frames that were not written are set aside and the loop is asked to
+     * flush again once the socket is writable.
+     *
+     * @throws IOException if the socket fails
+     */
+    void flush() throws IOException {
+        if (isClosed() || key == null) {
+            return;
+        }
+        IrcFrame[] frames = loop.gatherFrames;
+        ByteBuffer[] buffers = loop.gatherBuffers;
+        int count = 0;
+        if (stalled != null) {
+            count = stalled.length;
+            System.arraycopy(stalled, 0, frames, 0, count);
+            System.arraycopy(stalledBuffers, 0, buffers, 0, count);
+            stalled = null;
+            stalledBuffers = null;
+        }
+        try {
+            while (true) {
+                for (IrcFrame frame; count < MAX_GATHER && (frame = outbound.poll()) != null; count++) {
+                    frames[count] = frame;
+                    buffers[count] = frame.buffer();
+                }
+                if (count == 0) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                channel.write(buffers, 0, count);
+                int written = 0;
+                for (; written < count && !buffers[written].hasRemaining(); written++) {
+                    dequeued(frames[written]);
+                    frames[written] = null;
+                    buffers[written] = null;
+                }
+                if (written < count) {
+                    stalled = Arrays.copyOfRange(frames, written, count);
+                    stalledBuffers = Arrays.copyOfRange(buffers, written, count);
+                    Arrays.fill(frames, written, count, null);
+                    Arrays.fill(buffers, written, count, null);
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                count = 0;
+            }
+        } catch (IOException e) {
+            for (int i = 0; i < count; i++) {
+                if (frames[i] != null) {
+                    dequeued(frames[i]);
+                    frames[i] = null;
+                    buffers[i] = null;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the socket and releases every frame still queued. Must be called on the thread of the loop.
+     */
+    void closeNow() {
+        if (!markClosed()) {
+            return;
+        }
+        boolean connected = key != null;
+        if (connected) {
+            key.cancel();
+            key = null;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The socket is gone either way
+        }
+        if (stalled != null) {
+            for (IrcFrame frame : stalled) {
+                dequeued(frame);
+            }
+            stalled = null;
+            stalledBuffers = null;
+        }
+        releaseOutbound();
+        server.closed(this, connected);
+    }
+
+    private void scheduledFlush() {
+        flushScheduled.set(false);
+        if (stalled != null) {
+            return; // the socket is full, and the loop flushes once it is writable
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            closeNow();
+        }
+    }
+
+}
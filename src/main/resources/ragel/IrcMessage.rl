@@ -1,111 +1,231 @@
 package me.parted.anivia.irc;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
- * The {@code IrcMessageReader} decodes a {@code String} containing the IRC protocol message as described in RFC 2812
- * Section 2.3 and in the IRCv3.2 specification into an {@link me.parted.anivia.irc.IrcMessage}.
+ * The {@code IrcMessageDecoder} incrementally decodes a stream of UTF-8 encoded bytes containing IRC protocol messages
+ * as described in RFC 2812 Section 2.3 and in the IRCv3.2 specification into {@link me.parted.anivia.irc.IrcMessage}s.
+ * <p>
+ * The decoder may be fed arbitrary chunks of the stream as they are read from a socket: a chunk may end in the middle of
+ * a message or hold several messages at once. The state of the machine is kept between calls, so every byte is scanned
+ * exactly once and each {@code IrcMessage} is emitted as soon as its CRLF arrives. Only the token that is still in
+ * progress at the end of a chunk is retained. Lines that are malformed or longer than 1024 bytes are discarded up to
+ * and including their LF.
  * <p>
  * The code in this class is generated through Ragel, a finite state machine compiler that compiles executable finite
  * state machines from regular languages. As a result, this code is not maintainable except from the Ragel-based input
  * file that contains rules on how to parse the protocol.
+ * <p>
+ * {@code IrcMessage} objects generated by this class are guaranteed to be validated and conformant upon creation.
+ * Instances of this class are not thread-safe and are intended to be owned by a single connection.
  *
  * @author Justin Kaufman
  * @see me.parted.anivia.irc.IrcMessage
+ * @see me.parted.anivia.irc.IrcMessageReader
  * @since 1.0
  */
-public class IrcMessageReader {
+public class IrcMessageDecoder {
+
+    /* The longest line a decoder keeps unless told otherwise, in bytes, including its CRLF */
+    static final int MAX_LINE_LENGTH = 1024;
+
+    /* Construction variables */
+    private final IrcMessageView view = new IrcMessageView();
+    private boolean complete;
+
+    /* Required tokens for the Ragel FSM, kept between chunks */
+    private int cs;
+    private int s; // current index
+    private int base; // index at which the current chunk starts
+
+    /* Stream state */
+    private byte[] carry = new byte[64]; // the token in progress at the end of the last chunk
+    private int carryLength;
+    private int length; // bytes of the current message consumed in earlier chunks
+    private boolean discarding;
+    private final int maxLength; // the longest line kept, in bytes
 
     /**
-     * Decodes a {@code String} containing a raw IRC protocol message as described in RFC 2812 Section 2.3 and in the
-     * IRCv3.2 specification.
-     * @param raw The raw line to be processed.
-     * @return An {@code IrcMessage} containing the data processed from the raw line.
+     * Constructs a new {@code IrcMessageDecoder} positioned at the start of a message, which unescapes tag values as
+     * it parses them.
      */
-    @Nullable
-    public static IrcMessage read(String raw) {
-        if (raw == null) {
-            return null;
+    public IrcMessageDecoder() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new {@code IrcMessageDecoder} positioned at the start of a message.
+     *
+     * @param lazyTags True if tag values are only to be unescaped when they are read from a view, which saves the work
+     *                 for tags that are never read, or false if they are to be unescaped as they are parsed.
+     */
+    public IrcMessageDecoder(boolean lazyTags) {
+        this(lazyTags, MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Constructs a new {@code IrcMessageDecoder} positioned at the start of a message, which discards lines longer than
+     * a given number of bytes.
+     *
+     * @param lazyTags  True if tag values are only to be unescaped when they are read from a view.
+     * @param maxLength The longest line to be kept, in bytes, including its CRLF.
+     */
+    IrcMessageDecoder(boolean lazyTags, int maxLength) {
+        this.maxLength = maxLength;
+        view.lazyTags(lazyTags);
+        reset();
+    }
+
+    /**
+     * Decodes every remaining byte of a chunk of the stream, handing each completed {@code IrcMessage} to a consumer in
+     * order. Upon return the position of the buffer is advanced to its limit. Any message left incomplete at the end of
+     * the chunk is continued by the next call.
+     *
+     * @param data The buffer, which may be direct, holding the next chunk of the stream.
+     * @param out  The consumer to which completed messages are handed.
+     */
+    public void decode(@NotNull ByteBuffer data, @NotNull Consumer<? super IrcMessage> out) {
+        int p = data.position(), pe = data.limit();
+        while (p < pe) {
+            p = decode(data, p, pe);
+            if (complete) {
+                IrcMessage message = view.toIrcMessage();
+                reset();
+                out.accept(message);
+            }
         }
+        data.position(pe);
+    }
 
-        if (raw.length() > 1024) {
-            return null;
+    /**
+     * Decodes every remaining byte of a chunk of the stream, handing a view of each completed message to a consumer in
+     * order. No {@code String} is created unless the consumer asks the view for one. The view is reused for the next
+     * message once the consumer returns; it must be retained through an {@link me.parted.anivia.irc.IrcMessageViewPool}
+     * to be kept any longer. Upon return the position of the buffer is advanced to its limit.
+     *
+     * @param data The buffer, which may be direct, holding the next chunk of the stream.
+     * @param out  The consumer to which views of completed messages are handed.
+     */
+    public void decodeViews(@NotNull ByteBuffer data, @NotNull Consumer<? super IrcMessageView> out) {
+        int p = data.position(), pe = data.limit();
+        while (p < pe) {
+            p = decode(data, p, pe);
+            if (complete) {
+                out.accept(view);
+                reset();
+            }
         }
-        /* Construction variables */
-        IrcMessage ircMessage = null;
+        data.position(pe);
+    }
 
-        List<IrcTag> ircTags = new ArrayList<>();
-        IrcTag ircTag = null;
-        String tagKey = null;
-        String tagValue = null;
+    /**
+     * Discards any partially decoded message so that the next byte fed to this decoder is treated as the start of a
+     * new message.
+     */
+    public void reset() {
+        view.clear();
+        complete = false;
+        carryLength = 0;
+        length = 0;
+        discarding = false;
 
-        IrcPrefix ircPrefix = null;
-        String hostname = null;
-        String nickname = null;
-        String user = null;
-        String host = null;
+        %% write init;
+    }
 
-        String command = null;
+    /**
+     * Decodes a region of a buffer that must hold exactly one raw line. This backs
+     * {@link me.parted.anivia.irc.IrcMessageReader}.
+     *
+     * @param data   The buffer holding the raw line to be processed.
+     * @param offset The absolute index in the buffer at which the raw line starts.
+     * @param length The number of bytes in the raw line.
+     * @return An {@code IrcMessage} containing the data processed from the raw line, or null if it is invalid.
+     */
+    @Nullable
+    IrcMessage decodeLine(ByteBuffer data, int offset, int length) {
+        reset();
+        int end = offset + length;
+        IrcMessage message = decode(data, offset, end) == end && complete ? view.toIrcMessage() : null;
+        reset();
+        return message;
+    }
 
-        String params = null;
+    /**
+     * Runs the machine over the bytes from {@code p} until a message is completed, the line is found to be invalid, or
+     * the chunk is exhausted.
+     *
+     * @param data The buffer holding the chunk.
+     * @param p    The absolute index at which to resume.
+     * @param pe   The absolute index one past the end of the chunk.
+     * @return The absolute index of the first byte that was not consumed.
+     */
+    private int decode(ByteBuffer data, int p, int pe) {
+        if (discarding) {
+            while (p < pe) {
+                if (data.get(p++) == '\n') {
+                    reset();
+                    break;
+                }
+            }
+            if (discarding) {
+                return p;
+            }
+        }
 
-        /* Required tokens for the Ragel FSM */
-        char[] data = raw.toCharArray();
-        int cs, p = 0, pe = data.length, eof = data.length;
-        int s = p; // current index
-		int q = p; // section start
+        int start = p;
+        base = p;
+        s = p - carryLength; // a token carried over from the last chunk is addressed just before this one
+        view.wrap(data, base, carry, carryLength);
 
         %%{
             machine irc;
+            getkey (data.get(p) & 0xff);
 
-			action sectionstart { q = p; }
             action bufferstart { s = p; }
             action checksize {
-                if (p - q > 512) {
-                    return null;
+                if (p - s > 512) {
+                    cs = irc_error;
+                    fbreak;
                 }
             }
             action tagkey {
-                tagKey = new String(data, s, p - s);
+                view.tagKey(s, p);
             }
             action tagvalue {
-                tagValue = new String(data, s, p - s);
+                view.tagValue(s, p); // unescapes the value as it copies it, unless tags are lazy
             }
             action tag {
-                ircTag = new IrcTag(tagKey, tagValue);
-                ircTags.add(ircTag);
-                tagValue = null; // the next tag could have a null value
+                view.tag();
             }
             action hostname {
-                hostname = new String(data, s, p - s);
+                view.mark(IrcMessageView.HOSTNAME, s, p);
             }
             action host {
-                host = new String(data, s, p - s);
+                view.mark(IrcMessageView.HOST, s, p);
             }
             action nickname {
-                nickname = new String(data, s, p - s);
+                view.mark(IrcMessageView.NICKNAME, s, p);
             }
             action user {
-                user = new String(data, s, p - s);
+                view.mark(IrcMessageView.USER, s, p);
             }
             action prefix {
-                if (nickname == null) {
-                    ircPrefix = new IrcPrefix(hostname);
-                } else {
-                    ircPrefix = new IrcPrefix(nickname, user, host);
-                }
+                view.prefix();
             }
             action command {
-                command = new String(data, s, p - s);
+                view.command(s, p);
             }
             action params {
-                params = new String(data, s, p - s);
+                view.mark(IrcMessageView.PARAMS, s, p);
             }
             action message {
-                ircMessage = new IrcMessage(ircTags, ircPrefix, command, params);
+                complete = true;
+                fbreak;
             }
 
             decoctet    = digit
@@ -144,16 +264,54 @@ public class IrcMessageReader {
             trailing   = ( ':' | ' ' | nospcrlfcl )*;
             params     = ( (' ' middle){,14} (' :' trailing)? ) >bufferstart %params;
             crlf       = '\r\n';
-            message1   = ( '@' tags ' ' )? >sectionstart $checksize;
-            message2   = ( ':' prefix ' ' )? command ( params )? crlf >sectionstart $checksize;
+            message1   = ( '@' tags ' ' )? $checksize;
+            message2   = ( ':' prefix ' ' )? command ( params )? crlf $checksize;
             message    = message1 message2;
-            main      := message %message;
+            main      := message @message;
 
-            write init;
             write exec;
         }%%
 
-        return ircMessage;
+        if (complete) {
+            if (length + (p - start) > maxLength) {
+                reset();
+            }
+        } else if (cs == irc_error) {
+            reset();
+            discarding = true;
+        } else {
+            length += p - start;
+            if (length > maxLength) {
+                reset();
+                discarding = true;
+            } else {
+                view.spill();
+                keep(data, pe);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Retains the token in progress at the end of a chunk so that it can be completed from the next one.
+     *
+     * @param data The buffer holding the chunk.
+     * @param pe   The absolute index one past the end of the chunk.
+     */
+    private void keep(ByteBuffer data, int pe) {
+        int from = s;
+        if (from >= base) {
+            carryLength = 0; // a new token started in this chunk
+        } else {
+            from = base;
+        }
+        int needed = carryLength + (pe - from);
+        if (needed > carry.length) {
+            carry = Arrays.copyOf(carry, Math.max(needed, carry.length * 2));
+        }
+        for (int i = from; i < pe; i++) {
+            carry[carryLength++] = data.get(i);
+        }
     }
 
     %% write data;
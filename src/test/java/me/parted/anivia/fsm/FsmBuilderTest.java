@@ -0,0 +1,134 @@
+package me.parted.anivia.fsm;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FsmBuilderTest {
+
+    private static boolean accepts(Dfa dfa, String input) {
+        Dfa.Cursor cursor = dfa.cursor();
+        for (int i = 0; i < input.length(); i++) {
+            cursor.consume(input.charAt(i));
+        }
+        assertEquals(input, dfa.matches(input), cursor.accept());
+        return cursor.accept();
+    }
+
+    @Test
+    public void testFollowedByRange() {
+        Dfa dfa = new FsmBuilder()
+                .followedBy('a', 'z').plus()
+                .followedBy(new char[]{'#'})
+                .build();
+        assertTrue(accepts(dfa, "abc#"));
+        assertTrue(accepts(dfa, "z#"));
+        assertFalse(accepts(dfa, "#"));
+        assertFalse(accepts(dfa, "aB#"));
+        assertFalse(accepts(dfa, "abc"));
+    }
+
+    @Test
+    public void testFollowedByNoneOf() {
+        // A middle parameter: anything but NUL, CR, LF and space, as long as it does not start with a colon.
+        FsmBuilder nospcrlfcl = new FsmBuilder().followedByNoneOf(new char[]{'\0', '\r', '\n', ' ', ':'});
+        FsmBuilder nospcrlf = new FsmBuilder().followedByNoneOf(new char[]{'\0', '\r', '\n', ' '});
+        Dfa dfa = nospcrlfcl.followedBy(nospcrlf.star()).build();
+        assertTrue(accepts(dfa, "#channel"));
+        assertTrue(accepts(dfa, "a:b"));
+        assertTrue(accepts(dfa, "\u00e9\u4e2d\uffff"));
+        assertFalse(accepts(dfa, ":trailing"));
+        assertFalse(accepts(dfa, "two words"));
+        assertFalse(accepts(dfa, "line\r\n"));
+        assertFalse(accepts(dfa, ""));
+
+        // The wide ranges are a handful of classes rather than one per character.
+        assertTrue(dfa.classCount() <= 3);
+        assertEquals(3, dfa.stateCount());
+    }
+
+    @Test
+    public void testBuildByReversal() {
+        // Any word over {a, b} whose third last letter is an a, whose minimal DFA has to remember the last three.
+        FsmBuilder builder = new FsmBuilder().followedBy(new char[]{'a', 'b'}).star()
+                .followedBy(new char[]{'a'})
+                .followedBy(new char[]{'a', 'b'})
+                .followedBy(new char[]{'a', 'b'})
+                .or(new FsmBuilder().followedBy('0', '9').plus());
+        Dfa hopcroft = builder.build();
+        Dfa brzozowski = builder.buildByReversal();
+        assertEquals(brzozowski.stateCount(), hopcroft.stateCount());
+        assertEquals(brzozowski.classCount(), hopcroft.classCount());
+        for (String input : new String[]{"", "a", "aab", "abab", "bbbbabb", "abba", "42", "4a", "ab1"}) {
+            assertEquals(input, accepts(brzozowski, input), accepts(hopcroft, input));
+        }
+        assertEquals(11, hopcroft.stateCount());
+        assertTrue(accepts(hopcroft, "bbbbabb"));
+        assertFalse(accepts(hopcroft, "abba"));
+    }
+
+    @Test
+    public void testBuildByReversalIsMinimal() {
+        FsmBuilder star = new FsmBuilder().followedBy(new char[]{'b'}).star();
+        assertEquals(2, star.build().stateCount());
+        assertEquals(2, star.buildByReversal().stateCount());
+
+        // Globs such as "*x*", whose reversal has a start state that only fans out to the old accept states
+        FsmBuilder any = new FsmBuilder().followedBy(Character.MIN_VALUE, Character.MAX_VALUE).star();
+        FsmBuilder globs = any.followedBy(new char[]{'x'}).followedBy(any)
+                .or(new FsmBuilder().followedBy(new char[]{'n'}).followedBy(new char[]{'!'}).followedBy(any));
+        assertEquals(globs.build().stateCount(), globs.buildByReversal().stateCount());
+        assertEquals(2, new FsmBuilder().choice().buildByReversal().stateCount());
+    }
+
+    @Test
+    public void testTagged() {
+        Dfa dfa = new FsmBuilder().followedBy('a', 'z').plus().tagged(2)
+                .or(new FsmBuilder().followedBy(new char[]{'a'}).followedBy(new char[]{'b'}).tagged(1))
+                .or(new FsmBuilder().followedBy('0', '9').tagged(3))
+                .build();
+        assertArrayEquals(new int[]{1, 2}, patternsOf(dfa, "ab"));
+        assertArrayEquals(new int[]{2}, patternsOf(dfa, "abc"));
+        assertArrayEquals(new int[]{3}, patternsOf(dfa, "7"));
+        assertArrayEquals(new int[0], patternsOf(dfa, "77"));
+
+        int state = dfa.start();
+        state = dfa.next(state, 'a');
+        state = dfa.next(state, 'b');
+        assertEquals(1, dfa.pattern(state));
+        assertEquals(Dfa.NONE, dfa.pattern(dfa.next(state, '!')));
+
+        // Pattern IDs survive union and minimization, moved past the IDs of the left-hand side.
+        Dfa union = dfa.union(new FsmBuilder().followedBy(new char[]{'a', '7'}).build(), 4).minimize();
+        assertArrayEquals(new int[]{2, 4}, patternsOf(union, "a"));
+        assertArrayEquals(new int[]{3, 4}, patternsOf(union, "7"));
+    }
+
+    private static int[] patternsOf(Dfa dfa, String input) {
+        return dfa.patterns(dfa.run(input));
+    }
+
+    @Test
+    public void testCursor() {
+        Dfa dfa = new FsmBuilder().followedBy(new char[]{'a'}).plus().tagged(5).build();
+        Dfa.Cursor first = dfa.cursor();
+        Dfa.Cursor second = dfa.cursor();
+        first.consume("aa");
+        assertTrue(first.accept());
+        assertEquals(5, first.pattern());
+        assertFalse(second.accept());
+        assertEquals(Dfa.NONE, second.pattern());
+        assertEquals(dfa.start(), second.state());
+
+        first.consume('b');
+        assertFalse(first.accept());
+        assertEquals(Dfa.DEAD, first.state());
+        first.reset();
+        first.consume('a');
+        assertTrue(first.accept());
+    }
+
+}
@@ -0,0 +1,77 @@
+package me.parted.anivia.fsm;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyDfaTest {
+
+    private static FsmBuilder any() {
+        return new FsmBuilder().followedBy(Character.MIN_VALUE, Character.MAX_VALUE);
+    }
+
+    /*
+     * The union of *a?b*, *b??a and *ab*ba?, tagged 0, 1 and 2.
+     */
+    private static FsmBuilder union() {
+        return any().star()
+                .followedBy(new char[]{'a'}).followedBy(any()).followedBy(new char[]{'b'}).followedBy(any().star())
+                .tagged(0)
+                .or(any().star()
+                        .followedBy(new char[]{'b'}).followedBy(any()).followedBy(any()).followedBy(new char[]{'a'})
+                        .tagged(1))
+                .or(any().star()
+                        .followedBy(new char[]{'a'}).followedBy(new char[]{'b'}).followedBy(any().star())
+                        .followedBy(new char[]{'b'}).followedBy(new char[]{'a'}).followedBy(any())
+                        .tagged(2));
+    }
+
+    private static String random(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append("abc".charAt(random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testMatchesLikeDfa() {
+        Dfa dfa = union().build();
+        LazyDfa lazy = union().buildLazy(1000);
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String input = random(random, random.nextInt(12));
+            assertEquals(input, dfa.matches(input), lazy.matches(input));
+            assertArrayEquals(input, dfa.patterns(dfa.run(input)), lazy.patterns(input));
+        }
+        assertTrue(lazy.cachedStates() > 0);
+        assertEquals(0, lazy.flushes());
+        assertEquals(0, lazy.fallbacks());
+    }
+
+    @Test
+    public void testBoundedCache() {
+        Dfa dfa = union().build();
+        LazyDfa lazy = union().buildLazy(3);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            String input = random(random, random.nextInt(40));
+            assertArrayEquals(input, dfa.patterns(dfa.run(input)), lazy.patterns(input));
+            assertTrue(lazy.cachedStates() <= 3);
+        }
+        assertTrue(lazy.flushes() > 0);
+        assertTrue(lazy.fallbacks() > 0);
+
+        // A copy starts out with an empty cache of its own.
+        LazyDfa copy = lazy.copy();
+        assertEquals(0, copy.cachedStates());
+        assertTrue(copy.matches("xaxbx"));
+        assertFalse(copy.matches("xaxxbx"));
+    }
+
+}
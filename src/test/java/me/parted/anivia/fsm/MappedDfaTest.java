@@ -0,0 +1,157 @@
+package me.parted.anivia.fsm;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MappedDfaTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] INPUTS = {"", "a", "ab", "abc", "abcd", "xyz", "bc", "b\u00e9", "b\u4e00", "\u4e00"};
+
+    /*
+     * "ab*c" tagged 0, "[^a]*" tagged 1 and "b" followed by a character from U+00E0 to U+4E00 tagged 2.
+     */
+    private static Dfa dfa() {
+        return new FsmBuilder().followedBy(new char[]{'a'})
+                .followedBy(new FsmBuilder().followedBy(new char[]{'b'}).star())
+                .followedBy(new char[]{'c'})
+                .tagged(0)
+                .or(new FsmBuilder().followedByNoneOf(new char[]{'a'}).star().tagged(1))
+                .or(new FsmBuilder().followedBy(new char[]{'b'}).followedBy('\u00e0', '\u4e00').tagged(2))
+                .build();
+    }
+
+    private static ByteBuffer write(Dfa dfa) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) dfa.serializedSize());
+        dfa.writeTo(buffer);
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+        return buffer;
+    }
+
+    /*
+     * Writes the checksum of a buffer that has been changed on purpose, so that it gets past the checksum.
+     */
+    private static ByteBuffer checksummed(ByteBuffer buffer) {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(DfaFormat.HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(28, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static void assertSameAs(Dfa dfa, MappedDfa mapped) {
+        assertEquals(dfa.stateCount(), mapped.stateCount());
+        assertEquals(dfa.classCount(), mapped.classCount());
+        for (String input : INPUTS) {
+            assertEquals(input, dfa.run(input), mapped.run(input));
+            assertEquals(input, dfa.matches(input), mapped.matches(input));
+            assertEquals(input, dfa.pattern(dfa.run(input)), mapped.pattern(mapped.run(input)));
+            assertArrayEquals(input, dfa.patterns(dfa.run(input)), mapped.patterns(mapped.run(input)));
+        }
+    }
+
+    @Test
+    public void testMap() {
+        Dfa dfa = dfa();
+        assertSameAs(dfa, MappedDfa.map(write(dfa)));
+    }
+
+    @Test
+    public void testReadFrom() {
+        Dfa dfa = dfa();
+        ByteBuffer buffer = ByteBuffer.allocate((int) dfa.serializedSize() + 8);
+        buffer.putInt(42);
+        dfa.writeTo(buffer);
+        buffer.putInt(43);
+        buffer.flip();
+
+        assertEquals(42, buffer.getInt());
+        Dfa read = Dfa.readFrom(buffer);
+        assertEquals(43, buffer.getInt());
+        MappedDfa mapped = MappedDfa.map(write(read));
+        assertSameAs(dfa, mapped);
+        assertSameAs(dfa, MappedDfa.map(write(mapped.toDfa())));
+    }
+
+    @Test
+    public void testOpen() throws IOException {
+        Dfa dfa = dfa();
+        Path path = folder.getRoot().toPath().resolve("dfa.bin");
+        Files.write(path, write(dfa).array());
+        assertSameAs(dfa, MappedDfa.open(path));
+    }
+
+    @Test
+    public void testCorrupt() {
+        ByteBuffer buffer = write(dfa());
+        buffer.put(buffer.limit() / 2, (byte) (buffer.get(buffer.limit() / 2) ^ 1));
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("checksum");
+        MappedDfa.map(buffer);
+    }
+
+    @Test
+    public void testTruncated() {
+        ByteBuffer buffer = write(dfa());
+        buffer.limit(buffer.limit() - 1);
+        exception.expect(IllegalArgumentException.class);
+        Dfa.readFrom(buffer);
+    }
+
+    @Test
+    public void testOverflowingCount() {
+        ByteBuffer buffer = write(dfa());
+        buffer.putInt(24, 0x40000000);
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("corrupt");
+        MappedDfa.map(buffer);
+    }
+
+    @Test
+    public void testTargetOutOfRange() {
+        Dfa dfa = dfa();
+        ByteBuffer buffer = write(dfa);
+        buffer.putInt(DfaFormat.HEADER_SIZE + 4 * DfaFormat.LOW, dfa.stateCount());
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("corrupt");
+        MappedDfa.map(checksummed(buffer));
+    }
+
+    @Test
+    public void testClassOutOfRange() {
+        Dfa dfa = dfa();
+        ByteBuffer buffer = write(dfa);
+        buffer.putInt(DfaFormat.HEADER_SIZE + 4 * 'b', -1);
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("corrupt");
+        MappedDfa.map(checksummed(buffer));
+    }
+
+    @Test
+    public void testVersion() {
+        ByteBuffer buffer = write(dfa());
+        buffer.putShort(4, (short) (DfaFormat.VERSION + 1));
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("version");
+        MappedDfa.map(buffer);
+    }
+
+}
@@ -0,0 +1,71 @@
+package me.parted.anivia.irc;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class IrcBroadcastTest {
+
+    private final IrcPrefix ircPrefix = new IrcPrefix("SomeNick", "someuser", "some.client.fqdn");
+    private IrcMessage withTags = new IrcMessage(getNonEmptyIrcTagList(), ircPrefix, "PRIVMSG", " #chan :Some params");
+
+    private List<IrcTag> getNonEmptyIrcTagList() {
+        ArrayList<IrcTag> list = new ArrayList<>();
+        list.add(new IrcTag("time", "2016-01-01T00:00:00.000Z"));
+        list.add(new IrcTag("account", "someaccount"));
+        list.add(new IrcTag("+example.com/key", "value"));
+        return list;
+    }
+
+    private String read(IrcFrame frame) {
+        ByteBuffer buffer = frame.buffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFrameFor() throws Exception {
+        String body = ":SomeNick!someuser@some.client.fqdn PRIVMSG #chan :Some params\r\n";
+        try (IrcBroadcast broadcast = new IrcBroadcast(withTags)) {
+            IrcFrame all = broadcast.frameFor(IrcCapability.MESSAGE_TAGS.bit());
+            IrcFrame none = broadcast.frameFor(0);
+            IrcFrame time = broadcast.frameFor(IrcCapability.mask(EnumSet.of(IrcCapability.SERVER_TIME)));
+            IrcFrame batch = broadcast.frameFor(IrcCapability.BATCH.bit());
+
+            assertEquals("@time=2016-01-01T00:00:00.000Z;account=someaccount;+example.com/key=value " + body, read(all));
+            assertEquals(body, read(none));
+            assertEquals("@time=2016-01-01T00:00:00.000Z " + body, read(time));
+            assertSame(none, batch);
+            assertSame(all, broadcast.frameFor(IrcCapability.MESSAGE_TAGS.bit() | IrcCapability.SERVER_TIME.bit()));
+            assertEquals(3, broadcast.size());
+        }
+    }
+
+    @Test
+    public void testFanOut() throws Exception {
+        IrcFrame[] queued = new IrcFrame[5000];
+        IrcFrame frame;
+        try (IrcBroadcast broadcast = new IrcBroadcast(withTags)) {
+            for (int i = 0; i < queued.length; i++) {
+                queued[i] = broadcast.frameFor(i % 2 == 0 ? 0 : IrcCapability.MESSAGE_TAGS.bit());
+            }
+            assertEquals(2, broadcast.size());
+            frame = queued[0];
+            assertEquals(2501, frame.references());
+        }
+        assertEquals(2500, frame.references());
+        for (int i = 0; i < queued.length; i++) {
+            queued[i].release();
+        }
+        assertEquals(0, frame.references());
+    }
+
+}
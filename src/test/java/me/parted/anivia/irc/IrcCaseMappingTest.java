@@ -0,0 +1,54 @@
+package me.parted.anivia.irc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IrcCaseMappingTest {
+
+    @Test
+    public void testFold() throws Exception {
+        assertEquals("nick{}|~", IrcCaseMapping.RFC1459.fold("NICK[]\\^"));
+        assertEquals("nick{}|^", IrcCaseMapping.STRICT_RFC1459.fold("NICK[]\\^"));
+        assertEquals("nick[]\\^", IrcCaseMapping.ASCII.fold("NICK[]\\^"));
+        for (IrcCaseMapping mapping : IrcCaseMapping.values()) {
+            String folded = "nick{}|~";
+            assertSame(folded, mapping.fold(folded));
+            assertEquals('\u00c9', mapping.fold('\u00c9'));
+            assertEquals('_', mapping.fold('_'));
+        }
+    }
+
+    @Test
+    public void testEquals() throws Exception {
+        assertTrue(IrcCaseMapping.RFC1459.equals("Foo[Bar]^", "fOO{bAR}~"));
+        assertTrue(IrcCaseMapping.STRICT_RFC1459.equals("Foo[Bar]\\", "fOO{bAR}|"));
+        assertFalse(IrcCaseMapping.STRICT_RFC1459.equals("Foo^", "foo~"));
+        assertFalse(IrcCaseMapping.ASCII.equals("Foo[", "foo{"));
+        assertTrue(IrcCaseMapping.ASCII.equals("#Channel", new StringBuilder("#cHANNEL")));
+        assertFalse(IrcCaseMapping.RFC1459.equals("nick", "nick_"));
+    }
+
+    @Test
+    public void testHash() throws Exception {
+        for (IrcCaseMapping mapping : IrcCaseMapping.values()) {
+            assertEquals(mapping.hash("nick[]"), mapping.hash(new StringBuilder("NICK[]")));
+            assertEquals(mapping.fold("Nick[]\\^").hashCode(), mapping.hash("Nick[]\\^"));
+        }
+        assertEquals(IrcCaseMapping.RFC1459.hash("a[^"), IrcCaseMapping.RFC1459.hash("A{~"));
+    }
+
+    @Test
+    public void testOf() throws Exception {
+        for (IrcCaseMapping mapping : IrcCaseMapping.values()) {
+            assertSame(mapping, IrcCaseMapping.of(mapping.getToken()));
+        }
+        assertSame(IrcCaseMapping.STRICT_RFC1459, IrcCaseMapping.of("Strict-RFC1459"));
+        assertNull(IrcCaseMapping.of("rfc7613"));
+    }
+
+}
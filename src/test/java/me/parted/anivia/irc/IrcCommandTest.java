@@ -0,0 +1,57 @@
+package me.parted.anivia.irc;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class IrcCommandTest {
+
+    @Test
+    public void testOf() throws Exception {
+        for (IrcCommand command : IrcCommand.values()) {
+            if (command != IrcCommand.NUMERIC && command != IrcCommand.UNKNOWN) {
+                assertEquals(command, IrcCommand.of(command.name()));
+                assertEquals(command, IrcCommand.of(command.name().toLowerCase()));
+            }
+        }
+        assertEquals(IrcCommand.NUMERIC, IrcCommand.of("001"));
+        assertEquals(IrcCommand.UNKNOWN, IrcCommand.of("PRIVMSGX"));
+        assertEquals(IrcCommand.UNKNOWN, IrcCommand.of("NUMERIC"));
+        assertEquals(IrcCommand.UNKNOWN, IrcCommand.of("0001"));
+    }
+
+    @Test
+    public void testNumeric() throws Exception {
+        assertEquals(1, IrcCommand.numeric("001"));
+        assertEquals(433, IrcCommand.numeric("433"));
+        assertEquals(-1, IrcCommand.numeric("PING"));
+        assertEquals(-1, IrcCommand.numeric("4a3"));
+    }
+
+    @Test
+    public void testParsedCommand() throws Exception {
+        IrcMessage message = IrcMessageReader.read(":irc.example.net 433 * nick :Nickname is already in use\r\n");
+        assertEquals(IrcCommand.NUMERIC, message.getIrcCommand());
+        assertEquals(433, message.getNumeric());
+        message = IrcMessageReader.read("privmsg #anivia :hi\r\n");
+        assertEquals(IrcCommand.PRIVMSG, message.getIrcCommand());
+        assertEquals("privmsg", message.getCommand());
+        assertEquals(-1, message.getNumeric());
+
+        List<IrcMessageView> views = new ArrayList<>();
+        IrcMessageViewPool pool = new IrcMessageViewPool(2);
+        new IrcMessageDecoder().decodeViews(ByteBuffer.wrap("PRIVMSG #anivia :hi\r\nFOO bar\r\n"
+                .getBytes(StandardCharsets.UTF_8)), view -> views.add(pool.retain(view)));
+        assertEquals(IrcCommand.PRIVMSG, views.get(0).getIrcCommand());
+        assertSame(IrcCommand.PRIVMSG.name(), views.get(0).getCommand());
+        assertEquals(IrcCommand.UNKNOWN, views.get(1).getIrcCommand());
+        assertEquals("FOO", views.get(1).getCommand());
+    }
+
+}
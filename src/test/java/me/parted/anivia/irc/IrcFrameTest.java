@@ -0,0 +1,54 @@
+package me.parted.anivia.irc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IrcFrameTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBuffer() throws Exception {
+        IrcFrame frame = IrcFrame.encode(new IrcMessage(new ArrayList<>(), null, "PING", " :token"));
+        assertEquals(13, frame.length());
+        ByteBuffer first = frame.buffer();
+        ByteBuffer second = frame.buffer();
+        first.get(new byte[5]);
+        assertEquals(8, first.remaining());
+        assertEquals(13, second.remaining());
+        assertTrue(second.isReadOnly());
+        byte[] bytes = new byte[second.remaining()];
+        second.get(bytes);
+        assertEquals("PING :token\r\n", new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReferences() throws Exception {
+        List<ByteBuffer> recycled = new ArrayList<>();
+        ByteBuffer bytes = ByteBuffer.wrap("PING :token\r\n".getBytes(StandardCharsets.UTF_8));
+        IrcFrame frame = new IrcFrame(bytes, recycled::add);
+        assertSame(frame, frame.retain());
+        assertEquals(2, frame.references());
+        assertFalse(frame.release());
+        assertTrue(recycled.isEmpty());
+        assertTrue(frame.release());
+        assertEquals(1, recycled.size());
+        assertSame(bytes, recycled.get(0));
+
+        exception.expect(IllegalStateException.class);
+        frame.retain();
+    }
+
+}
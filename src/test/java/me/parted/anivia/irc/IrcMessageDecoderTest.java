@@ -0,0 +1,147 @@
+package me.parted.anivia.irc;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IrcMessageDecoderTest {
+
+    private final IrcPrefix ircPrefix = new IrcPrefix("SomeNick", "someuser", "some.client.fqdn");
+    private IrcMessage withTags = new IrcMessage(getNonEmptyIrcTagList(), ircPrefix, "SOMECMD", " :Some params");
+    private IrcMessage noPrefix = new IrcMessage(getNonEmptyIrcTagList(), null, "SOMECMD", " :Some params");
+    private IrcMessage noParam = new IrcMessage(new ArrayList<>(), null, "PING", null);
+
+    private static final String STREAM =
+            "@firstKey=firstValue;keyAlone;lastKey=lastValue :SomeNick!someuser@some.client.fqdn SOMECMD :Some params\r\n"
+            + "@firstKey=firstValue;keyAlone;lastKey=lastValue SOMECMD :Some params\r\n"
+            + "PING\r\n";
+
+    private List<IrcTag> getNonEmptyIrcTagList() {
+        ArrayList<IrcTag> list = new ArrayList<>();
+        list.add(new IrcTag("firstKey", "firstValue"));
+        list.add(new IrcTag("keyAlone", null));
+        list.add(new IrcTag("lastKey", "lastValue"));
+        return list;
+    }
+
+    private List<IrcMessage> decode(String stream, int chunkSize, boolean direct) {
+        byte[] bytes = stream.getBytes(StandardCharsets.UTF_8);
+        IrcMessageDecoder decoder = new IrcMessageDecoder();
+        List<IrcMessage> messages = new ArrayList<>();
+        ByteBuffer chunk = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            chunk.clear();
+            chunk.put(bytes, i, Math.min(chunkSize, bytes.length - i));
+            chunk.flip();
+            decoder.decode(chunk, messages::add);
+            assertEquals(chunk.limit(), chunk.position());
+        }
+        return messages;
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        List<IrcMessage> expected = new ArrayList<>();
+        expected.add(withTags);
+        expected.add(noPrefix);
+        expected.add(noParam);
+        assertEquals(expected, decode(STREAM, STREAM.length(), false));
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            assertEquals(expected, decode(STREAM, chunkSize, false));
+            assertEquals(expected, decode(STREAM, chunkSize, true));
+        }
+    }
+
+    @Test
+    public void testDecodeDiscardsInvalidLines() throws Exception {
+        List<IrcMessage> expected = new ArrayList<>();
+        expected.add(noParam);
+        expected.add(noParam);
+        String stream = "!!! not a valid line\r\nPING\r\n" + Strings.repeat("x", 2000) + "\r\nPING\r\n";
+        assertEquals(expected, decode(stream, stream.length(), false));
+        assertEquals(expected, decode(stream, 7, true));
+    }
+
+    @Test
+    public void testDecodeViews() throws Exception {
+        byte[] bytes = STREAM.getBytes(StandardCharsets.UTF_8);
+        IrcMessageViewPool pool = new IrcMessageViewPool(4);
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            IrcMessageDecoder decoder = new IrcMessageDecoder();
+            List<IrcMessageView> retained = new ArrayList<>();
+            List<String> commands = new ArrayList<>();
+            ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSize);
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                chunk.clear();
+                chunk.put(bytes, i, Math.min(chunkSize, bytes.length - i));
+                chunk.flip();
+                decoder.decodeViews(chunk, view -> {
+                    commands.add(view.getCommand());
+                    retained.add(pool.retain(view));
+                });
+            }
+            assertEquals(3, commands.size());
+            assertEquals(withTags, retained.get(0).toIrcMessage());
+            assertEquals(noPrefix, retained.get(1).toIrcMessage());
+            assertEquals(noParam, retained.get(2).toIrcMessage());
+            assertEquals("some.client.fqdn", retained.get(0).getHost());
+            assertEquals("lastValue", retained.get(1).getTagValue(2));
+            retained.forEach(pool::release);
+        }
+    }
+
+    @Test
+    public void testUnescapeTagValues() throws Exception {
+        String line = "@a=semi\\:colon\\sspace;b=back\\\\slash\\r\\n;c=drop\\xped;d=trailing\\;e=\\ "
+                + ":SomeNick!someuser@some.client.fqdn PRIVMSG #channel :hi\r\n";
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        for (boolean lazyTags : new boolean[]{false, true}) {
+            for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+                IrcMessageDecoder decoder = new IrcMessageDecoder(lazyTags);
+                IrcMessageViewPool pool = new IrcMessageViewPool(1);
+                List<IrcMessage> messages = new ArrayList<>();
+                List<IrcMessageView> retained = new ArrayList<>();
+                for (int i = 0; i < bytes.length; i += chunkSize) {
+                    ByteBuffer chunk = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+                    decoder.decodeViews(chunk, view -> {
+                        retained.add(pool.retain(view));
+                        messages.add(view.toIrcMessage());
+                    });
+                }
+                assertEquals(1, messages.size());
+                IrcTags ircTags = messages.get(0).getTags();
+                assertEquals("semi;colon space", ircTags.getValue("a"));
+                assertEquals("back\\slash\r\n", ircTags.getValue("b"));
+                assertEquals("dropxped", ircTags.getValue("c"));
+                assertEquals("trailing", ircTags.getValue("d"));
+                assertNull(ircTags.getValue("e"));
+                assertEquals(messages.get(0), IrcMessageReader.read(IrcMessageWriter.write(messages.get(0))));
+                assertEquals("semi;colon space", retained.get(0).getTagValue(0));
+                assertEquals("back\\slash\r\n", retained.get(0).getTagValue(1));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyTags() throws Exception {
+        String line = "@time=2016-01-01T12:00:00.000Z;msgid=a\\sb PRIVMSG #channel :hi\r\n";
+        IrcMessageDecoder decoder = new IrcMessageDecoder(true);
+        List<String> values = new ArrayList<>();
+        decoder.decodeViews(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), view -> {
+            values.add(view.getTagValue(IrcTagKey.MSGID));
+            values.add(view.getTagValue(IrcTagKey.MSGID));
+        });
+        assertEquals(2, values.size());
+        assertEquals("a b", values.get(0));
+        assertSame(values.get(0), values.get(1));
+    }
+
+}
@@ -0,0 +1,112 @@
+package me.parted.anivia.irc;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IrcMessageEncoderTest {
+
+    private final IrcPrefix ircPrefix = new IrcPrefix("SomeNick", "someuser", "some.client.fqdn");
+    private IrcMessage noTags = new IrcMessage(getEmptyIrcTagList(), ircPrefix, "SOMECMD", " :Some params");
+    private IrcMessage withTags = new IrcMessage(getNonEmptyIrcTagList(), ircPrefix, "SOMECMD", " :Some params");
+    private IrcMessage noPrefix = new IrcMessage(getNonEmptyIrcTagList(), null, "SOMECMD", " :Some params");
+    private IrcMessage noParam = new IrcMessage(getNonEmptyIrcTagList(), ircPrefix, "SOMECMD", null);
+    private IrcMessage serverPrefix = new IrcMessage(getEmptyIrcTagList(), new IrcPrefix("irc.example.com"), "001", " SomeNick :Welcome");
+    private IrcMessage userNoHost = new IrcMessage(getEmptyIrcTagList(), new IrcPrefix("SomeNick", "someuser", null),
+            "PRIVMSG", " #chan :hi");
+    private IrcMessage unicode = new IrcMessage(getEmptyIrcTagList(), ircPrefix, "PRIVMSG",
+            " #chan :caf\u00e9 \u20ac \ud83d\ude00");
+
+    private List<IrcTag> getEmptyIrcTagList() {
+        return new ArrayList<>();
+    }
+
+    private List<IrcTag> getNonEmptyIrcTagList() {
+        ArrayList<IrcTag> list = new ArrayList<>();
+        list.add(new IrcTag("firstKey", "firstValue"));
+        list.add(new IrcTag("keyAlone", null));
+        list.add(new IrcTag("lastKey", "lastValue"));
+        return list;
+    }
+
+    private String encode(IrcMessage message, ByteBuffer buffer) {
+        assertTrue(IrcMessageEncoder.encode(message, buffer));
+        buffer.flip();
+        assertEquals(IrcMessageEncoder.encodedLength(message), buffer.remaining());
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        for (IrcMessage message : new IrcMessage[]{noTags, withTags, noPrefix, noParam, serverPrefix, userNoHost,
+                unicode}) {
+            assertEquals(IrcMessageWriter.write(message), encode(message, ByteBuffer.allocate(512)));
+            assertEquals(IrcMessageWriter.write(message), encode(message, ByteBuffer.allocateDirect(512)));
+        }
+    }
+
+    @Test
+    public void testEncodeUserWithoutHost() throws Exception {
+        assertEquals(":SomeNick PRIVMSG #chan :hi\r\n", encode(userNoHost, ByteBuffer.allocate(512)));
+        assertEquals(IrcMessageWriter.write(userNoHost), encode(userNoHost, ByteBuffer.allocate(512)));
+    }
+
+    @Test
+    public void testEncodeLoneSurrogates() throws Exception {
+        List<IrcTag> ircTags = new ArrayList<>();
+        ircTags.add(new IrcTag("key", "v\uDC00"));
+        IrcMessage message = new IrcMessage(ircTags, new IrcPrefix("n\uD800ick", "user", "host"), "PRIVMSG",
+                " #chan :\uD800 \uD83D\uDE00 \uDE00\uD83D");
+        assertEquals("@key=v? :n?ick!user@host PRIVMSG #chan :? \uD83D\uDE00 ??\r\n",
+                encode(message, ByteBuffer.allocate(512)));
+        assertEquals(6, IrcMessageEncoder.length("\uD800\uD800\uDC00\uDC00"));
+    }
+
+    @Test
+    public void testEncodeCachedPrefix() throws Exception {
+        IrcPrefix cached = new IrcPrefix("N\u00efck", "someuser", "some.client.fqdn");
+        cached.encode();
+        for (IrcPrefix prefix : new IrcPrefix[]{cached, new IrcPrefix("irc.example.com")}) {
+            prefix.encode();
+            IrcMessage message = new IrcMessage(getNonEmptyIrcTagList(), prefix, "PRIVMSG", " #chan :hi");
+            assertEquals(IrcMessageWriter.write(message), encode(message, ByteBuffer.allocate(512)));
+        }
+    }
+
+    @Test
+    public void testEncodeEscapedTags() throws Exception {
+        List<IrcTag> ircTags = new ArrayList<>();
+        ircTags.add(new IrcTag("a", "semi;colon space"));
+        ircTags.add(new IrcTag("b", "back\\slash\r\n caf\u00e9 \ud83d\ude00"));
+        IrcMessage message = new IrcMessage(ircTags, ircPrefix, "TAGMSG", " #chan");
+        String encoded = encode(message, ByteBuffer.allocate(512));
+        assertEquals(IrcMessageWriter.write(message), encoded);
+        assertEquals("@a=semi\\:colon\\sspace;b=back\\\\slash\\r\\n\\scaf\u00e9\\s\ud83d\ude00 "
+                + ":SomeNick!someuser@some.client.fqdn TAGMSG #chan\r\n", encoded);
+        assertEquals(message, IrcMessageReader.read(encoded));
+    }
+
+    @Test
+    public void testEncodeOverflow() throws Exception {
+        int length = IrcMessageEncoder.encodedLength(withTags);
+        ByteBuffer buffer = ByteBuffer.allocate(length + 10);
+        buffer.position(11);
+        assertFalse(IrcMessageEncoder.encode(withTags, buffer));
+        assertEquals(11, buffer.position());
+
+        buffer.clear();
+        buffer.position(10);
+        assertTrue(IrcMessageEncoder.encode(withTags, buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+}
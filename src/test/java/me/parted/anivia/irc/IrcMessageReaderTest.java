@@ -1,13 +1,17 @@
 package me.parted.anivia.irc;
 
+import com.google.common.base.Strings;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class IrcMessageReaderTest {
 
@@ -38,4 +42,40 @@ public class IrcMessageReaderTest {
         assertEquals(noPrefix, IrcMessageReader.read("@firstKey=firstValue;keyAlone;lastKey=lastValue SOMECMD :Some params\r\n"));
         assertEquals(noParam, IrcMessageReader.read("@firstKey=firstValue;keyAlone;lastKey=lastValue :SomeNick!someuser@some.client.fqdn SOMECMD\r\n"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReadByteBuffer() throws Exception {
+        byte[] line = "@firstKey=firstValue;keyAlone;lastKey=lastValue :SomeNick!someuser@some.client.fqdn SOMECMD :Some params\r\n"
+                .getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(line.length + 8);
+        direct.position(4);
+        direct.put(line);
+        direct.flip();
+        assertEquals(withTags, IrcMessageReader.read(direct, 4, line.length));
+        assertEquals(0, direct.position());
+        assertEquals(withTags, IrcMessageReader.read(ByteBuffer.wrap(line), 0, line.length));
+        byte[] unicode = ":SomeNick!someuser@some.client.fqdn PRIVMSG #anivia :h\u00e9llo \u65e5\u672c\r\n"
+                .getBytes(StandardCharsets.UTF_8);
+        assertEquals(new IrcMessage(getEmptyIrcTagList(), ircPrefix, "PRIVMSG", " #anivia :h\u00e9llo \u65e5\u672c"),
+                IrcMessageReader.read(ByteBuffer.wrap(unicode), 0, unicode.length));
+    }
+
+    @Test
+    public void testReadLimits() throws Exception {
+        String accented = "PRIVMSG #a :" + Strings.repeat("\u00e9", 600) + "\r\n";
+        assertEquals(new IrcMessage(getEmptyIrcTagList(), null, "PRIVMSG", " #a :" + Strings.repeat("\u00e9", 600)),
+                IrcMessageReader.read(accented));
+        assertNull(IrcMessageReader.read("PRIVMSG #a :" + Strings.repeat("x", 1011) + "\r\n"));
+        byte[] bytes = accented.getBytes(StandardCharsets.UTF_8);
+        assertNull(IrcMessageReader.read(ByteBuffer.wrap(bytes), 0, bytes.length));
+        assertNull(IrcMessageReader.read("!!! not a valid line\r\n"));
+        assertEquals(noTags, IrcMessageReader.read(":SomeNick!someuser@some.client.fqdn SOMECMD :Some params\r\n"));
+    }
+
+    @Test
+    public void testReadOutOfBounds() throws Exception {
+        byte[] line = "PING\r\n".getBytes(StandardCharsets.UTF_8);
+        exception.expect(IndexOutOfBoundsException.class);
+        IrcMessageReader.read(ByteBuffer.wrap(line), 2, line.length);
+    }
+}
@@ -4,7 +4,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class IrcPrefixTest {
 
@@ -12,6 +18,7 @@ public class IrcPrefixTest {
     private final IrcPrefix clientPrefix = new IrcPrefix("SomeNick", "someuser", "some.client.fqdn");
     private final IrcPrefix noUserPrefix = new IrcPrefix("SomeNick", null, "some.client.fqdn");
     private final IrcPrefix noHostPrefix = new IrcPrefix("SomeNick", null, null);
+    private final IrcPrefix userNoHostPrefix = new IrcPrefix("SomeNick", "someuser", null);
 
     @Rule
     public ExpectedException exception = ExpectedException.none();
@@ -83,5 +90,26 @@ public class IrcPrefixTest {
         assertEquals(":SomeNick!someuser@some.client.fqdn", clientPrefix.toString());
         assertEquals(":SomeNick@some.client.fqdn", noUserPrefix.toString());
         assertEquals(":SomeNick", noHostPrefix.toString());
+        assertEquals(":SomeNick", userNoHostPrefix.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEncode() throws Exception {
+        for (IrcPrefix ircPrefix : new IrcPrefix[]{serverPrefix, clientPrefix, noUserPrefix, noHostPrefix,
+                userNoHostPrefix, new IrcPrefix("N\u00efck", "\u00fcser", "h\u00f4st")}) {
+            ByteBuffer encoded = ircPrefix.encode();
+            assertTrue(encoded.isReadOnly());
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            assertEquals(ircPrefix.toString(), new String(bytes, StandardCharsets.UTF_8));
+            assertSame(ircPrefix.encoded(), ircPrefix.encoded());
+        }
+        ByteBuffer lone = new IrcPrefix("n\uD800ick", "user\uDC00", "host").encode();
+        byte[] bytes = new byte[lone.remaining()];
+        lone.get(bytes);
+        assertEquals(":n?ick!user?@host", new String(bytes, StandardCharsets.US_ASCII));
+        assertNull(new IrcPrefix("SomeNick", "someuser", "some.client.fqdn").encoded());
+        assertEquals(clientPrefix, new IrcPrefix("SomeNick", "someuser", "some.client.fqdn"));
+    }
+
+}
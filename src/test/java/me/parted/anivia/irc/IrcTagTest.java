@@ -49,6 +49,7 @@ public class IrcTagTest {
     public void testToString() throws Exception {
         assertEquals("beep=boop", withValue.toString());
         assertEquals("beep", withNoValue.toString());
+        assertEquals("beep=a\\:b\\sc\\\\d\\r\\n", new IrcTag("beep", "a;b c\\d\r\n").toString());
     }
 
 }
\ No newline at end of file
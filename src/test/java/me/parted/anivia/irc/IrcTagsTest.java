@@ -0,0 +1,95 @@
+package me.parted.anivia.irc;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IrcTagsTest {
+
+    private final List<IrcTag> list = Arrays.asList(
+            new IrcTag("time", "2016-01-01T12:00:00.000Z"),
+            new IrcTag("example.com/custom", "value"),
+            new IrcTag("bot", null),
+            new IrcTag("msgid", "first"),
+            new IrcTag("msgid", "second"));
+
+    @Test
+    public void testCopyOf() throws Exception {
+        IrcTags ircTags = IrcTags.copyOf(list);
+        assertEquals(list, ircTags);
+        assertEquals(ircTags, new ArrayList<>(list));
+        assertEquals(list.hashCode(), ircTags.hashCode());
+        assertSame(ircTags, IrcTags.copyOf(ircTags));
+        assertSame(IrcTags.of(), IrcTags.copyOf(new ArrayList<>()));
+        assertEquals("example.com/custom", ircTags.getKey(1));
+        assertNull(ircTags.getValue(2));
+        assertSame(IrcTagKey.TIME.getKey(), ircTags.getKey(0));
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        IrcTags ircTags = IrcTags.copyOf(list);
+        assertEquals("2016-01-01T12:00:00.000Z", ircTags.getValue(IrcTagKey.TIME));
+        assertEquals("second", ircTags.getValue(IrcTagKey.MSGID));
+        assertEquals("second", ircTags.getValue("msgid"));
+        assertEquals("value", ircTags.getValue("example.com/custom"));
+        assertTrue(ircTags.containsKey(IrcTagKey.BOT));
+        assertNull(ircTags.getValue(IrcTagKey.BOT));
+        assertFalse(ircTags.containsKey(IrcTagKey.ACCOUNT));
+        assertNull(ircTags.getValue(IrcTagKey.ACCOUNT));
+        assertNull(ircTags.getValue("missing"));
+        assertFalse(IrcTags.of().containsKey(IrcTagKey.TIME));
+    }
+
+    @Test
+    public void testLookupManyTags() throws Exception {
+        List<IrcTag> many = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            many.add(new IrcTag("key" + i, "value" + i));
+        }
+        many.add(new IrcTag("account", "someaccount"));
+        IrcTags ircTags = IrcTags.copyOf(many);
+        assertEquals("someaccount", ircTags.getValue(IrcTagKey.ACCOUNT));
+        assertEquals("value299", ircTags.getValue("key299"));
+        assertFalse(ircTags.containsKey(IrcTagKey.TIME));
+    }
+
+    @Test
+    public void testParsed() throws Exception {
+        String line = "@time=2016-01-01T12:00:00.000Z;account=someaccount;bot;vendor/time=x "
+                + ":SomeNick!someuser@some.client.fqdn TAGMSG #channel\r\n";
+        IrcMessage message = IrcMessageReader.read(line);
+        IrcTags ircTags = message.getTags();
+        assertEquals(4, ircTags.size());
+        assertSame(IrcTagKey.TIME.getKey(), ircTags.getKey(0));
+        assertSame(IrcTagKey.ACCOUNT.getKey(), ircTags.getKey(1));
+        assertEquals("2016-01-01T12:00:00.000Z", ircTags.getValue(IrcTagKey.TIME));
+        assertEquals("someaccount", ircTags.getValue(IrcTagKey.ACCOUNT));
+        assertTrue(ircTags.containsKey(IrcTagKey.BOT));
+        assertEquals("x", ircTags.getValue("vendor/time"));
+        assertEquals(line, message.toString());
+
+        // A key split across chunks is still resolved
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        List<IrcMessageView> views = new ArrayList<>();
+        IrcMessageViewPool pool = new IrcMessageViewPool(1);
+        IrcMessageDecoder decoder = new IrcMessageDecoder();
+        decoder.decodeViews(ByteBuffer.wrap(bytes, 0, 3), views::add);
+        decoder.decodeViews(ByteBuffer.wrap(bytes, 3, bytes.length - 3), view -> views.add(pool.retain(view)));
+        assertEquals(1, views.size());
+        assertEquals("someaccount", views.get(0).getTagValue(IrcTagKey.ACCOUNT));
+        assertSame(IrcTagKey.TIME.getKey(), views.get(0).getTagKey(0));
+        assertNull(views.get(0).getTagValue(IrcTagKey.MSGID));
+    }
+
+}
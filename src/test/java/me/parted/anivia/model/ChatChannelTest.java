@@ -0,0 +1,109 @@
+package me.parted.anivia.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChatChannelTest {
+
+    @Test
+    public void testJoinPart() {
+        ChatChannel channel = new ChatChannel("#channel");
+        ChatUser first = new ChatUser("first");
+        ChatUser second = new ChatUser("second");
+        ChatUser third = new ChatUser("third");
+        assertEquals("#channel", channel.getName());
+        assertEquals(0, channel.size());
+
+        assertTrue(channel.join(first));
+        assertTrue(channel.join(second));
+        assertFalse(channel.join(first));
+        assertTrue(channel.join(third));
+        assertEquals(Arrays.asList(first, second, third), channel.getMembers());
+
+        List<ChatUser> before = channel.getMembers();
+        assertTrue(channel.part(second));
+        assertFalse(channel.part(second));
+        assertFalse(channel.contains(second));
+        assertTrue(channel.contains(third));
+        assertEquals(Arrays.asList(first, third), channel.getMembers());
+        assertEquals(Arrays.asList(first, second, third), before);
+
+        assertTrue(channel.part(first));
+        assertTrue(channel.part(third));
+        assertEquals(0, channel.size());
+    }
+
+    @Test
+    public void testConcurrentFanOut() throws Exception {
+        ChatChannel channel = new ChatChannel("#busy");
+        ChatUser[] users = new ChatUser[1000];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new ChatUser("user" + i);
+        }
+        ChatUser resident = new ChatUser("resident");
+        channel.join(resident);
+
+        // Readers fan out while writers join and part, and must always see the resident exactly once
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Thread reader = new Thread(() -> {
+                while (!done.get()) {
+                    Set<ChatUser> seen = new HashSet<>();
+                    AtomicInteger duplicates = new AtomicInteger();
+                    channel.forEachMember(user -> {
+                        if (!seen.add(user)) {
+                            duplicates.incrementAndGet();
+                        }
+                    });
+                    if (!seen.contains(resident) || duplicates.get() > 0) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        CountDownLatch writers = new CountDownLatch(4);
+        for (int w = 0; w < 4; w++) {
+            int offset = w;
+            new Thread(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (int i = offset; i < users.length; i += 4) {
+                        channel.join(users[i]);
+                    }
+                    for (int i = offset; i < users.length; i += 4) {
+                        channel.part(users[i]);
+                    }
+                }
+                for (int i = offset; i < users.length; i += 4) {
+                    channel.join(users[i]);
+                }
+                writers.countDown();
+            }).start();
+        }
+        writers.await();
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, failures.get());
+        assertEquals(users.length + 1, channel.size());
+        assertEquals(users.length + 1, new HashSet<>(channel.getMembers()).size());
+    }
+
+}
@@ -0,0 +1,127 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcCaseMapping;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChatNetworkTest {
+
+    @Test
+    public void testUsers() {
+        ChatNetwork network = new ChatNetwork();
+        ChatUser alice = new ChatUser("Alice[away]");
+        ChatUser bob = new ChatUser("bob");
+        assertTrue(network.addUser(alice));
+        assertTrue(network.addUser(bob));
+        assertFalse(network.addUser(new ChatUser("ALICE{AWAY}")));
+        assertSame(alice, network.getUser("alice{away}"));
+        assertSame(bob, network.getUser(new StringBuilder("BOB")));
+        assertNull(network.getUser("carol"));
+
+        assertFalse(network.changeNickname(bob, "alice[AWAY]"));
+        assertTrue(network.changeNickname(alice, "alice"));
+        assertEquals("alice", alice.getNickname());
+        assertNull(network.getUser("Alice[away]"));
+        assertSame(alice, network.getUser("ALICE"));
+        assertTrue(network.changeNickname(alice, "Alice"));
+        assertEquals("Alice", alice.getNickname());
+        assertSame(alice, network.getUser("alice"));
+
+        assertTrue(network.removeUser(bob));
+        assertFalse(network.removeUser(bob));
+        assertNull(network.getUser("bob"));
+        assertFalse(network.changeNickname(bob, "robert"));
+        assertEquals(1, network.getUserCount());
+    }
+
+    @Test
+    public void testCaseMapping() {
+        ChatNetwork network = new ChatNetwork(IrcCaseMapping.ASCII);
+        assertSame(IrcCaseMapping.ASCII, network.getCaseMapping());
+        ChatChannel channel = network.getOrCreateChannel("#Chan[1]");
+        assertSame(channel, network.getOrCreateChannel("#CHAN[1]"));
+        assertNull(network.getChannel("#chan{1}"));
+        assertSame(channel, network.getChannel("#chan[1]"));
+        assertTrue(network.removeChannel(channel));
+        assertNull(network.getChannel("#chan[1]"));
+        assertEquals(0, network.getChannelCount());
+    }
+
+    @Test
+    public void testChurn() {
+        NameIndex<Integer> index = new NameIndex<>(IrcCaseMapping.RFC1459);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            values.add(i);
+            assertNull(index.putIfAbsent("Nick" + i, values.get(i)));
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10000; i += 2) {
+                assertTrue(index.remove("NICK" + i, values.get(i)));
+                assertNull(index.putIfAbsent("nick" + i, values.get(i)));
+            }
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertSame(values.get(i), index.get("nIcK" + i));
+        }
+        assertEquals(10000, index.size());
+        assertTrue(index.capacity() <= 32768);
+    }
+
+    @Test
+    public void testConcurrentRename() throws Exception {
+        ChatNetwork network = new ChatNetwork();
+        ChatUser resident = new ChatUser("resident");
+        network.addUser(resident);
+        List<ChatUser> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(new ChatUser("user" + i));
+            network.addUser(users.get(i));
+        }
+
+        // Readers look up every user while writers rename them and churn other nicknames through the index
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (network.getUser("RESIDENT") != resident) {
+                    failures.incrementAndGet();
+                }
+                for (ChatUser user : users) {
+                    String nickname = user.getNickname();
+                    ChatUser found = network.getUser(nickname);
+                    if (found != null && found != user) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < users.size(); i++) {
+                assertTrue(network.changeNickname(users.get(i), (round % 2 == 0 ? "Other" : "user") + i));
+            }
+            for (int i = 0; i < 100; i++) {
+                ChatUser guest = new ChatUser("guest" + round + "_" + i);
+                assertTrue(network.addUser(guest));
+                assertTrue(network.removeUser(guest));
+            }
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(0, failures.get());
+        assertEquals(101, network.getUserCount());
+    }
+
+}
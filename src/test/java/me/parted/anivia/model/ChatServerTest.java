@@ -0,0 +1,211 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class ChatServerTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> modes() {
+        return Arrays.asList(new Object[][]{{ChatServer.Mode.EVENT_LOOP}, {ChatServer.Mode.VIRTUAL_THREADS}});
+    }
+
+    @Parameterized.Parameter
+    public ChatServer.Mode mode;
+
+    private final CountDownLatch disconnected = new CountDownLatch(1);
+    private ChatServer server;
+    private InetSocketAddress address;
+
+    /*
+     * Answers PING with PONG, and FLOOD n with n numbered NOTICEs.
+     */
+    private final ChatServer.Handler handler = new ChatServer.Handler() {
+        @Override
+        public void onMessage(ChatConnection connection, IrcMessage message) {
+            switch (message.getCommand()) {
+                case "PING":
+                    connection.send(new IrcMessage(Collections.emptyList(), null, "PONG", message.getParams()));
+                    break;
+                case "FLOOD":
+                    int n = Integer.parseInt(message.getParams().trim());
+                    for (int i = 0; i < n; i++) {
+                        connection.send(new IrcMessage(Collections.emptyList(), null, "NOTICE", " * :" + i));
+                    }
+                    break;
+                case "QUIT":
+                    connection.close();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void onDisconnect(ChatConnection connection) {
+            disconnected.countDown();
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        server = mode == ChatServer.Mode.EVENT_LOOP ? new ChatServer(handler, 2) : new ChatServer(handler, mode);
+        address = server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    private static void write(Socket socket, String lines) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(lines.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPingPong() throws Exception {
+        try (Socket socket = connect()) {
+            BufferedReader in = reader(socket);
+            write(socket, "PING :one\r\nPI");
+            assertEquals("PONG :one", in.readLine());
+            write(socket, "NG :two\r\n");
+            assertEquals("PONG :two", in.readLine());
+        }
+    }
+
+    @Test
+    public void testManyConnections() throws Exception {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 50; i++) {
+                sockets.add(connect());
+            }
+            for (int i = 0; i < sockets.size(); i++) {
+                write(sockets.get(i), "PING :" + i + "\r\n");
+            }
+            for (int i = 0; i < sockets.size(); i++) {
+                assertEquals("PONG :" + i, reader(sockets.get(i)).readLine());
+            }
+            assertEquals(50, server.getConnectionCount());
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSlowReader() throws Exception {
+        // Far more than the socket buffers hold, so the loop has to wait for the socket to become writable
+        server.setSendQLimit(16 * 1024 * 1024);
+        try (Socket socket = connect()) {
+            write(socket, "FLOOD 100000\r\n");
+            Thread.sleep(200);
+            BufferedReader in = reader(socket);
+            for (int i = 0; i < 100000; i++) {
+                assertEquals("NOTICE * :" + i, in.readLine());
+            }
+            for (long deadline = System.nanoTime() + 10_000_000_000L; server.getQueuedBytes() > 0; ) {
+                assertTrue(System.nanoTime() < deadline);
+                Thread.sleep(1);
+            }
+            assertEquals(0, server.getSendQExceededCount());
+        }
+    }
+
+    @Test
+    public void testSendQExceeded() throws Exception {
+        // Far more than the socket buffers hold, however large the kernel lets them grow
+        server.setSendQLimit(64 * 1024);
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(address);
+            write(socket, "FLOOD 1000000\r\n");
+            assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+            assertEquals(1, server.getSendQExceededCount());
+            assertEquals(0, server.getConnectionCount());
+            assertEquals(0, server.getQueuedBytes());
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        try (Socket socket = connect()) {
+            write(socket, "PING :x\r\nQUIT\r\n");
+            BufferedReader in = reader(socket);
+            assertEquals("PONG :x", in.readLine());
+            assertNull(in.readLine());
+            assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+            assertEquals(0, server.getConnectionCount());
+        }
+    }
+
+    @Test
+    public void testCloseClientNotReading() throws Exception {
+        server.setSendQLimit(Integer.MAX_VALUE);
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(address);
+            write(socket, "FLOOD 200000\r\n");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.getQueuedBytes() < 64 * 1024 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(server.getQueuedBytes() >= 64 * 1024);
+            server.close();
+            assertEquals(0, server.getConnectionCount());
+            assertEquals(0, server.getQueuedBytes());
+            assertEquals(0, disconnected.getCount());
+        }
+    }
+
+    @Test
+    public void testCloseInterrupted() throws Exception {
+        try (Socket socket = connect()) {
+            write(socket, "PING :x\r\n");
+            assertEquals("PONG :x", reader(socket).readLine());
+            Thread.currentThread().interrupt();
+            server.close();
+            assertTrue(Thread.interrupted());
+            assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+}
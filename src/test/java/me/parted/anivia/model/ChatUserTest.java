@@ -0,0 +1,80 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.irc.IrcPrefix;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ChatUserTest {
+
+    private static String encoded(IrcPrefix prefix) {
+        ByteBuffer buffer = prefix.encode();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPrefix() {
+        ChatUser user = new ChatUser("Nick", "~user", "gateway.example.net", "Real Name");
+        IrcPrefix prefix = user.getPrefix();
+        assertEquals(new IrcPrefix("Nick", "~user", "gateway.example.net"), prefix);
+        assertEquals(":Nick!~user@gateway.example.net", encoded(prefix));
+        assertEquals("Real Name", user.getRealname());
+
+        user.setRealname("Another Name");
+        assertSame(prefix, user.getPrefix());
+        assertEquals("Another Name", user.getRealname());
+
+        user.changeHost("~user", "cloak/nick");
+        assertNotSame(prefix, user.getPrefix());
+        assertEquals(":Nick!~user@cloak/nick", encoded(user.getPrefix()));
+        prefix = user.getPrefix();
+
+        ChatNetwork network = new ChatNetwork();
+        network.addUser(user);
+        network.changeNickname(user, "Other");
+        assertNotSame(prefix, user.getPrefix());
+        assertEquals("Other", user.getNickname());
+        assertEquals(":Other!~user@cloak/nick", encoded(user.getPrefix()));
+    }
+
+    @Test
+    public void testNicknameOnly() {
+        ChatUser user = new ChatUser("Nick");
+        assertNull(user.getUser());
+        assertNull(user.getHost());
+        assertNull(user.getRealname());
+        assertEquals(":Nick", encoded(user.getPrefix()));
+    }
+
+    @Test
+    public void testUserWithoutHost() {
+        ChatUser user = new ChatUser("Nick", "~user", null, null);
+        assertNull(user.getUser());
+        assertNull(user.getHost());
+        assertEquals(":Nick", encoded(user.getPrefix()));
+
+        user.changeHost("~user", "cloak/nick");
+        assertEquals(":Nick!~user@cloak/nick", encoded(user.getPrefix()));
+        user.changeHost("~user", null);
+        assertNull(user.getUser());
+        assertEquals(":Nick", encoded(user.getPrefix()));
+        assertEquals(":Nick", user.getPrefix().toString());
+    }
+
+    @Test
+    public void testInterned() {
+        ChatUser first = new ChatUser("first", new String("~user"), new String("gateway.example.net"), null);
+        ChatUser second = new ChatUser("second", new String("~user"), new String("gateway.example.net"), null);
+        assertSame(first.getUser(), second.getUser());
+        assertSame(first.getHost(), second.getHost());
+    }
+
+}
@@ -0,0 +1,330 @@
+package me.parted.anivia.model;
+
+import me.parted.anivia.exception.AlreadyExistsException;
+import me.parted.anivia.exception.InvalidGlobException;
+import me.parted.anivia.irc.IrcCaseMapping;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GlobSetTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMatch() throws Exception {
+        GlobSet globSet = new GlobSet();
+        assertFalse(globSet.match("somenick!someuser@some.client.fqdn"));
+
+        globSet.addGlob("*!*@*.client.fqdn");
+        globSet.addGlob("BadNick?!*@*");
+        globSet.addGlob("*!literal\\*star@host");
+        assertTrue(globSet.match("SomeNick!someuser@some.client.fqdn"));
+        assertTrue(globSet.match("x!y@.client.fqdn"));
+        assertFalse(globSet.match("x!y@client.fqdn"));
+        assertTrue(globSet.match("badnick1!user@anywhere"));
+        assertTrue(globSet.match("BADNICK\u00e9!user@anywhere"));
+        assertFalse(globSet.match("badnick!user@anywhere"));
+        assertFalse(globSet.match("badnick12!user@anywhere"));
+        assertTrue(globSet.match("nick!literal*star@host"));
+        assertFalse(globSet.match("nick!literalxstar@host"));
+        assertFalse(globSet.match(null));
+        assertEquals(3, globSet.getGlobList().size());
+
+        globSet.removeGlob("*!*@*.CLIENT.fqdn");
+        assertFalse(globSet.match("SomeNick!someuser@some.client.fqdn"));
+        assertTrue(globSet.match("badnick1!user@anywhere"));
+        assertEquals(2, globSet.getGlobList().size());
+    }
+
+    @Test
+    public void testMatchFoldsLikeGlobs() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@\u0130stanbul.example");
+        globSet.addGlob("[Away]*!*@*");
+        globSet.addGlob("*!*@host\\\\");
+        assertTrue(globSet.match("nick!user@\u0130stanbul.example"));
+        assertFalse(globSet.match("nick!user@istanbul.example"));
+        assertTrue(globSet.match("{away}nick!user@host"));
+        assertTrue(globSet.match("nick!user@HOST|"));
+        assertEquals(Collections.singletonList("*!*@host\\|"), globSet.matchAll("nick!user@host\\"));
+
+        GlobSet ascii = new GlobSet(IrcCaseMapping.ASCII);
+        ascii.addGlob("[Away]*!*@*");
+        assertTrue(ascii.match("[AWAY]nick!user@host"));
+        assertFalse(ascii.match("{away}nick!user@host"));
+    }
+
+    @Test
+    public void testMatchIgnoresDefaultLocale() throws Exception {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            GlobSet globSet = new GlobSet();
+            globSet.addGlob("*!*@IRC.example");
+            assertTrue(globSet.match("a!b@IRC.example"));
+            assertTrue(globSet.match("a!b@irc.EXAMPLE"));
+            globSet.removeGlob("*!*@irc.example");
+            assertFalse(globSet.match("a!b@IRC.example"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testMatchMany() throws Exception {
+        GlobSet globSet = new GlobSet();
+        for (int i = 0; i < 20; i++) {
+            globSet.addGlob("*!*@host-" + i + ".example.net");
+            globSet.addGlob("nick" + i + "!*@*");
+        }
+        for (int i = 0; i < 20; i++) {
+            assertTrue(globSet.match("someone!user@host-" + i + ".example.net"));
+            assertTrue(globSet.match("nick" + i + "!user@host"));
+        }
+        assertFalse(globSet.match("someone!user@host-20.example.net"));
+        assertFalse(globSet.match("nick20!user@host"));
+        assertFalse(globSet.match("nick1"));
+    }
+
+    @Test
+    public void testAddAllRemoveAll() throws Exception {
+        GlobSet globSet = new GlobSet();
+        List<String> globs = new ArrayList<>();
+        for (int i = 0; i < GlobSet.MAX_SHARD_SIZE + 40; i++) {
+            globs.add("*!*@host-" + i + ".example.net");
+        }
+        globSet.addAll(globs.subList(0, 20));
+        for (String glob : globs.subList(20, 40)) {
+            globSet.addGlob(glob);
+        }
+        globSet.addAll(globs.subList(40, globs.size()));
+        assertEquals(globs.size(), globSet.getGlobList().size());
+        for (int i = 0; i < globs.size(); i++) {
+            assertTrue(globSet.match("nick!user@host-" + i + ".example.net"));
+        }
+        assertFalse(globSet.match("nick!user@host-" + globs.size() + ".example.net"));
+
+        globSet.removeAll(Arrays.asList(globs.get(0), globs.get(25), globs.get(globs.size() - 1), "*!*@unknown"));
+        assertEquals(globs.size() - 3, globSet.getGlobList().size());
+        assertFalse(globSet.match("nick!user@host-0.example.net"));
+        assertFalse(globSet.match("nick!user@host-25.example.net"));
+        assertFalse(globSet.match("nick!user@host-" + (globs.size() - 1) + ".example.net"));
+        assertTrue(globSet.match("nick!user@host-1.example.net"));
+        assertTrue(globSet.match("nick!user@host-" + (globs.size() - 2) + ".example.net"));
+    }
+
+    @Test
+    public void testRemoveCompactsShards() throws Exception {
+        GlobSet globSet = new GlobSet();
+        List<String> globs = new ArrayList<>();
+        for (int i = 0; i < 3 * GlobSet.MAX_SHARD_SIZE + 37; i++) {
+            globs.add("*!*@host-" + i + ".example.net");
+        }
+        globSet.addAll(globs);
+        int live = globs.size();
+        for (int i = 0; i < globs.size(); i++) {
+            if (i % 8 != 0) {
+                globSet.removeGlob(globs.get(i));
+                live--;
+                assertTrue(globSet.shardCount() < live * 2 / GlobSet.MAX_SHARD_SIZE + 9);
+            }
+        }
+        assertEquals(live, globSet.getGlobList().size());
+        for (int i = 0; i < globs.size(); i++) {
+            assertEquals(i % 8 == 0, globSet.match("nick!user@host-" + i + ".example.net"));
+            assertEquals(i % 8 == 0, globSet.matchAll("nick!user@host-" + i + ".example.net").size() == 1);
+        }
+    }
+
+    @Test
+    public void testRemoveAndAddAgain() throws Exception {
+        GlobSet globSet = new GlobSet();
+        for (int i = 0; i < 8; i++) {
+            globSet.addGlob("*!*@host-" + i);
+        }
+        for (int round = 0; round < 4; round++) {
+            globSet.removeGlob("*!*@host-3");
+            assertFalse(globSet.match("nick!user@host-3"));
+            assertTrue(globSet.match("nick!user@host-4"));
+            globSet.addGlob("*!*@host-3");
+            globSet.addGlob("*!*@round-" + round);
+            assertTrue(globSet.match("nick!user@host-3"));
+            assertEquals(Collections.singletonList("*!*@host-3"), globSet.matchAll("nick!user@host-3"));
+        }
+        assertEquals(12, globSet.getGlobList().size());
+    }
+
+    @Test
+    public void testAddAllAlreadyExists() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@host");
+        try {
+            globSet.addAll(Arrays.asList("*!*@other", "*!*@HOST"));
+            fail();
+        } catch (AlreadyExistsException e) {
+            assertEquals(1, globSet.getGlobList().size());
+            assertFalse(globSet.match("nick!user@other"));
+        }
+    }
+
+    @Test
+    public void testConcurrentMatch() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@banned.host");
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                while (!done.get()) {
+                    if (!globSet.match("nick!user@banned.host") || globSet.match("nick!user@other.host")) {
+                        failed.set(true);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        for (int i = 0; i < 50; i++) {
+            globSet.addGlob("*!*@host-" + i + ".example.net");
+            if (i % 3 == 0) {
+                globSet.removeGlob("*!*@host-" + (i / 2) + ".example.net");
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertFalse(failed.get());
+    }
+
+    @Test
+    public void testMatchAll() throws Exception {
+        GlobSet globSet = new GlobSet();
+        assertTrue(globSet.matchAll("nick!user@host").isEmpty());
+        assertTrue(globSet.matchAll(null).isEmpty());
+
+        List<String> globs = new ArrayList<>();
+        for (int i = 0; i < GlobSet.MAX_SHARD_SIZE + 3; i++) {
+            globs.add("*!*@host" + i + ".example.net");
+        }
+        globSet.addAll(globs);
+        globSet.addGlob("*!*@host1*");
+        globSet.addGlob("NICK!*@*");
+        assertEquals(Arrays.asList("*!*@host1*", "*!*@host1.example.net", "nick!*@*"),
+                sorted(globSet.matchAll("nick!user@host1.example.net")));
+        assertEquals(Collections.singletonList("*!*@host258.example.net"),
+                globSet.matchAll("other!user@HOST258.example.net"));
+        assertEquals(Collections.singletonList("*!*@host1*"), globSet.matchAll("other!user@host1"));
+        assertTrue(globSet.matchAll("other!user@host").isEmpty());
+
+        globSet.addGlob("BadNick?!*@*");
+        globSet.addGlob("*!literal\\*star@*");
+        assertEquals(Collections.singletonList("badnick?!*@*"), globSet.matchAll("badnick1!user@anywhere"));
+        assertTrue(globSet.matchAll("badnick12!user@anywhere").isEmpty());
+        assertEquals(Collections.singletonList("*!literal\\*star@*"), globSet.matchAll("x!LITERAL*star@y"));
+        assertTrue(globSet.matchAll("x!literalxstar@y").isEmpty());
+
+        globSet.removeGlob("*!*@host1.example.net");
+        assertEquals(Arrays.asList("*!*@host1*", "nick!*@*"),
+                sorted(globSet.matchAll("nick!user@host1.example.net")));
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> sorted = new ArrayList<>(list);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void testAddGlobAlreadyExists() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@host");
+        exception.expect(AlreadyExistsException.class);
+        globSet.addGlob("*!*@HOST");
+    }
+
+    @Test
+    public void testAddGlobInvalid() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@host\\\\");
+        exception.expect(InvalidGlobException.class);
+        globSet.addGlob("*!*@host\\");
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        GlobSet globSet = new GlobSet();
+        for (int i = 0; i < 300; i++) {
+            globSet.addGlob("*!*@host-" + i + ".example.net");
+        }
+        globSet.addGlob("BadNick?!*@*");
+        Path path = folder.getRoot().toPath().resolve("globs.bin");
+        globSet.save(path);
+
+        GlobSet loaded = GlobSet.load(path);
+        assertEquals(sorted(globSet.getGlobList()), sorted(loaded.getGlobList()));
+        assertTrue(loaded.match("someone!user@host-299.example.net"));
+        assertTrue(loaded.match("badnick1!user@anywhere"));
+        assertFalse(loaded.match("someone!user@host-300.example.net"));
+        assertEquals(Collections.singletonList("badnick?!*@*"), loaded.matchAll("BadNick1!user@anywhere"));
+
+        loaded.removeGlob("badnick?!*@*");
+        loaded.addGlob("other!*@*");
+        assertFalse(loaded.match("badnick1!user@anywhere"));
+        assertTrue(loaded.match("other!user@host"));
+    }
+
+    @Test
+    public void testSaveLoadRemoved() throws Exception {
+        GlobSet globSet = new GlobSet();
+        for (int i = 0; i < 16; i++) {
+            globSet.addGlob("*!*@host-" + i);
+        }
+        globSet.removeGlob("*!*@host-5");
+        Path path = folder.getRoot().toPath().resolve("globs.bin");
+        globSet.save(path);
+
+        GlobSet loaded = GlobSet.load(path);
+        assertEquals(15, loaded.getGlobList().size());
+        assertEquals(IrcCaseMapping.RFC1459, loaded.getCaseMapping());
+        assertFalse(loaded.match("nick!user@host-5"));
+        assertTrue(loaded.match("nick!user@host-6"));
+        loaded.addGlob("*!*@host-5");
+        assertTrue(loaded.match("nick!user@host-5"));
+    }
+
+    @Test
+    public void testLoadCorrupt() throws Exception {
+        GlobSet globSet = new GlobSet();
+        globSet.addGlob("*!*@host");
+        Path path = folder.getRoot().toPath().resolve("globs.bin");
+        globSet.save(path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        exception.expect(IOException.class);
+        GlobSet.load(path);
+    }
+
+}